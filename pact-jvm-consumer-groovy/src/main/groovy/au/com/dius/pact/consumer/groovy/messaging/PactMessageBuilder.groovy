@@ -1,5 +1,6 @@
 package au.com.dius.pact.consumer.groovy.messaging
 
+import au.com.dius.pact.consumer.ConsumerPactWriter
 @SuppressWarnings('UnusedImport')
 import au.com.dius.pact.consumer.PactConsumerConfig$
 import au.com.dius.pact.consumer.groovy.BaseBuilder
@@ -120,7 +121,7 @@ class PactMessageBuilder extends BaseBuilder {
     if (results.any { it instanceof Throwable }) {
       throw new MessagePactFailedException(results.findAll { it instanceof Throwable })
     } else {
-      pact.write(PactConsumerConfig$.MODULE$.pactRootDir(), PactSpecVersion.V3)
+      ConsumerPactWriter.write(pact, PactConsumerConfig$.MODULE$.pactRootDir(), PactSpecVersion.V3)
     }
   }
 
@@ -17,6 +17,7 @@ import java.util.Objects;
 import java.util.Optional;
 
 import static au.com.dius.pact.consumer.ConsumerPactRunnerKt.runConsumerTest;
+import static au.com.dius.pact.consumer.ConsumerPactRunnerKt.runPooledConsumerTest;
 
 public class BaseProviderRule extends ExternalResource {
 
@@ -145,11 +146,15 @@ public class BaseProviderRule extends ExternalResource {
   }
 
   private PactVerificationResult runPactTest(final Statement base, RequestResponsePact pact) {
-      return runConsumerTest(pact, config, mockServer -> {
+      PactTestRun test = mockServer -> {
         this.mockServer = mockServer;
         base.evaluate();
         this.mockServer = null;
-      });
+      };
+      if (MockServerPool.enabled()) {
+        return runPooledConsumerTest(pact, config, test);
+      }
+      return runConsumerTest(pact, config, test);
   }
 
   protected void validateResult(PactVerificationResult result, PactVerification pactVerification) throws Throwable {
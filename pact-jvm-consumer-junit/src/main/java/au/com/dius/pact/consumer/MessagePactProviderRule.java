@@ -97,7 +97,7 @@ public class MessagePactProviderRule extends ExternalResource {
 				setMessage(providedMessage, description);
 				try {
 					base.evaluate();
-					messagePact.write(PactConsumerConfig$.MODULE$.pactRootDir(), PactSpecVersion.V3);
+					ConsumerPactWriter.write(messagePact, PactConsumerConfig$.MODULE$.pactRootDir(), PactSpecVersion.V3);
 				} catch (Throwable t) {
 					throw t;
 				}
@@ -130,7 +130,7 @@ public class MessagePactProviderRule extends ExternalResource {
 		MessagePact messagePact = (MessagePact) method.invoke(testClassInstance, builder);
 		setMessage(messagePact.getMessages().get(0), description);
 		base.evaluate();
-		messagePact.write(PactConsumerConfig$.MODULE$.pactRootDir(), PactSpecVersion.V3);
+		ConsumerPactWriter.write(messagePact, PactConsumerConfig$.MODULE$.pactRootDir(), PactSpecVersion.V3);
 	}
 
 	private Optional<PactVerification> findPactVerification(PactVerifications pactVerifications) {
@@ -0,0 +1,22 @@
+package au.com.dius.pact.consumer;
+
+import org.junit.rules.ExternalResource;
+
+/**
+ * A junit class rule that writes the pact files when all the tests in the class have run. This is only needed when
+ * pact writing is deferred by setting the <code>pact.writer.deferred</code> system property to true, otherwise the
+ * pact files are written after each test. Without this rule, deferred pact files are written when the JVM exits.
+ *
+ * <pre>
+ * &#64;ClassRule
+ * public static PactWriterClassRule pactWriter = new PactWriterClassRule();
+ * </pre>
+ */
+public class PactWriterClassRule extends ExternalResource {
+
+  @Override
+  protected void after() {
+    ConsumerPactWriter.flush();
+  }
+
+}
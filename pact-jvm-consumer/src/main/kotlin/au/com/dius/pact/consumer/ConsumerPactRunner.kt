@@ -12,3 +12,20 @@ fun runConsumerTest(pact: RequestResponsePact, config: MockProviderConfig, test:
   val server = mockServer(pact, config)
   return server.runAndWritePact(pact, config.pactVersion, test)
 }
+
+/**
+ * Runs the test against a running mock server from the [MockServerPool]. Configs that can not be pooled get a new
+ * mock server, as with [runConsumerTest]
+ */
+fun runPooledConsumerTest(pact: RequestResponsePact, config: MockProviderConfig, test: PactTestRun)
+  : PactVerificationResult {
+  if (!MockServerPool.canPool(config)) {
+    return runConsumerTest(pact, config, test)
+  }
+  val server = MockServerPool.acquire(pact, config)
+  try {
+    return server.runAndWritePactOnRunningServer(pact, config.pactVersion, test)
+  } finally {
+    MockServerPool.release(server)
+  }
+}
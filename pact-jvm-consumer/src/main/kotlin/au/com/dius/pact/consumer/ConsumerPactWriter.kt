@@ -0,0 +1,108 @@
+package au.com.dius.pact.consumer
+
+import au.com.dius.pact.model.BasePact
+import au.com.dius.pact.model.InvalidPactException
+import au.com.dius.pact.model.PactMerge
+import au.com.dius.pact.model.PactSpecVersion
+import au.com.dius.pact.model.RequestResponsePact
+import au.com.dius.pact.model.v3.messaging.MessagePact
+import mu.KLogging
+import java.io.File
+import java.util.concurrent.ConcurrentHashMap
+
+/**
+ * Writes the pacts of consumer tests to their pact files.
+ *
+ * By default each pact is merged into its pact file as soon as the test passes. When the `pact.writer.deferred`
+ * system property is set to `true`, the pacts are merged in memory by pact file instead, and each pact file is written
+ * once when [flush] is called, at the end of a test class or when the JVM exits. Merge conflicts are still reported
+ * by the test that caused them, and the pact file is still merged with the existing file under a file lock when it is
+ * written, so JVMs running tests at the same time do not lose each other's interactions.
+ *
+ * Pacts that are not request/response or message pacts are always written straight away. Pact files that are only
+ * written when the JVM exits can not fail a test, so errors writing them are only logged. Call [flush] from the tests,
+ * for example with the `PactWriterClassRule` class rule, for the errors to fail the tests.
+ */
+object ConsumerPactWriter : KLogging() {
+  const val DEFERRED_PROPERTY = "pact.writer.deferred"
+
+  private class PendingPact(val pactDir: String, val pact: BasePact, var pactVersion: PactSpecVersion)
+
+  private val pending = ConcurrentHashMap<File, PendingPact>()
+
+  private val shutdownHook by lazy {
+    Runtime.getRuntime().addShutdownHook(Thread({ flushOnExit() }, "pact-writer"))
+  }
+
+  /**
+   * If pacts are written when [flush] is called instead of after each test
+   */
+  @JvmStatic
+  fun deferred() = System.getProperty(DEFERRED_PROPERTY)?.toBoolean() ?: false
+
+  /**
+   * Writes the pact to its pact file in the pact directory, or merges it with the pending pact for the file when
+   * writing is deferred
+   */
+  @JvmStatic
+  fun write(pact: BasePact, pactDir: String, pactVersion: PactSpecVersion) {
+    if (!deferred()) {
+      pact.write(pactDir, pactVersion)
+      return
+    }
+
+    val copy = copyOf(pact)
+    if (copy == null) {
+      logger.warn { "Writing of ${pact.javaClass.simpleName} pacts can not be deferred, writing the pact " +
+        "${pact.consumer.name} -> ${pact.provider.name} straight away" }
+      pact.write(pactDir, pactVersion)
+      return
+    }
+
+    shutdownHook
+    pending.compute(pact.fileForPact(pactDir).absoluteFile) { _, existing ->
+      if (existing == null) {
+        PendingPact(pactDir, copy, pactVersion)
+      } else {
+        val result = PactMerge.merge(pact, existing.pact)
+        if (!result.ok) {
+          throw InvalidPactException(result.message)
+        }
+        existing.pactVersion = pactVersion
+        existing
+      }
+    }
+  }
+
+  /**
+   * Writes all the pending pacts to their pact files
+   */
+  @JvmStatic
+  fun flush() {
+    pending.keys.toList().forEach { file ->
+      val pendingPact = pending.remove(file)
+      if (pendingPact != null) {
+        logger.debug { "Writing pact ${pendingPact.pact.consumer.name} -> ${pendingPact.pact.provider.name} to " +
+          "file $file" }
+        pendingPact.pact.write(pendingPact.pactDir, pendingPact.pactVersion)
+      }
+    }
+  }
+
+  private fun flushOnExit() {
+    try {
+      flush()
+    } catch (e: Exception) {
+      logger.error(e) { "Failed to write the pending pact files when the JVM exited. Use the PactWriterClassRule " +
+        "class rule to write them at the end of each test class and fail the tests if they can not be written" }
+    }
+  }
+
+  // the pending pact has the interactions of the other pacts merged into it, so it must not be the pact of a test
+  private fun copyOf(pact: BasePact): BasePact? = when (pact) {
+    is RequestResponsePact -> RequestResponsePact(pact.provider, pact.consumer, pact.interactions.toMutableList(),
+      pact.metadata)
+    is MessagePact -> MessagePact(pact.provider, pact.consumer, pact.messages.toMutableList(), pact.metadata)
+    else -> null
+  }
+}
@@ -0,0 +1,53 @@
+package au.com.dius.pact.consumer
+
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicInteger
+import java.util.concurrent.locks.ReentrantLock
+import kotlin.concurrent.withLock
+
+/**
+ * Tracks the requests a mock server is processing, so the results of a test can be checked as soon as the server is
+ * idle instead of after a fixed delay
+ */
+class InFlightRequests {
+  private val count = AtomicInteger()
+  private val lock = ReentrantLock()
+  private val idle = lock.newCondition()
+
+  fun started() {
+    count.incrementAndGet()
+  }
+
+  fun finished() {
+    if (count.decrementAndGet() == 0) {
+      lock.withLock { idle.signalAll() }
+    }
+  }
+
+  fun inFlight() = count.get()
+
+  /**
+   * Waits until there are no requests being processed, for up to the timeout in milliseconds. Returns straight away
+   * if there are none, and false if there were still requests being processed when the timeout expired.
+   */
+  @JvmOverloads
+  fun awaitQuiescence(timeout: Long = DEFAULT_TIMEOUT_MS): Boolean {
+    if (count.get() == 0) {
+      return true
+    }
+    var remaining = TimeUnit.MILLISECONDS.toNanos(timeout)
+    lock.withLock {
+      while (count.get() > 0) {
+        if (remaining <= 0) {
+          return false
+        }
+        remaining = idle.awaitNanos(remaining)
+      }
+    }
+    return true
+  }
+
+  companion object {
+    const val DEFAULT_TIMEOUT_MS = 5000L
+  }
+}
@@ -1,8 +1,10 @@
 package au.com.dius.pact.consumer
 
 import au.com.dius.pact.model.FullRequestMatch
+import au.com.dius.pact.model.Interaction
 import au.com.dius.pact.model.MockHttpsProviderConfig
 import au.com.dius.pact.model.MockProviderConfig
+import au.com.dius.pact.model.MockServerExecutor
 import au.com.dius.pact.model.OptionalBody
 import au.com.dius.pact.model.PactReader
 import au.com.dius.pact.model.PactSpecVersion
@@ -20,10 +22,15 @@ import mu.KLogging
 import org.apache.commons.lang3.StringEscapeUtils
 import org.apache.http.entity.ContentType
 import scala.collection.JavaConversions
-import java.lang.Thread.sleep
 import java.nio.charset.Charset
-import java.util.concurrent.ConcurrentHashMap
+import java.util.IdentityHashMap
 import java.util.concurrent.ConcurrentLinkedQueue
+import java.util.concurrent.Executor
+import java.util.concurrent.ExecutorService
+import java.util.concurrent.Executors
+import java.util.concurrent.ThreadFactory
+import java.util.concurrent.atomic.AtomicInteger
+import java.util.concurrent.atomic.AtomicIntegerArray
 
 /**
  * Returns a mock server for the pact and config
@@ -53,12 +60,40 @@ interface MockServer {
     : PactVerificationResult
 }
 
-abstract class BaseMockServer(val pact: RequestResponsePact,
+/**
+ * The interactions a mock server expects and the requests it has received for them
+ */
+private class ArmedPact(val pact: RequestResponsePact) {
+  val mismatchedRequests = ConcurrentLinkedQueue<PactVerificationResult>()
+  // number of times each interaction has been matched, by its position in the pact
+  val interactionHits = AtomicIntegerArray(pact.interactions.size)
+  val interactionPositions = IdentityHashMap<Interaction, Int>(pact.interactions.size).apply {
+    pact.interactions.forEachIndexed { position, interaction -> put(interaction, position) }
+  }
+  val requestMatcher = RequestMatching.apply(JavaConversions.asScalaBuffer(pact.interactions).toSeq())
+  // responses of the interactions, by their position in the pact
+  val responses = pact.interactions.map { PreRenderedResponse(it.response) }
+  // position of the first interaction with the same request, by the position of each interaction in the pact. A
+  // request can only ever match the first of the interactions with that request
+  val firstWithSameRequest = HashMap<Request, Int>(pact.interactions.size).let { positions ->
+    IntArray(pact.interactions.size) { positions.getOrPut(pact.interactions[it].request) { it } }
+  }
+
+  /**
+   * If the request of the interaction at the position has been received, by this interaction or by the first
+   * interaction with the same request
+   */
+  fun received(position: Int) = interactionHits.get(position) > 0 ||
+    interactionHits.get(firstWithSameRequest[position]) > 0
+}
+
+abstract class BaseMockServer(pact: RequestResponsePact,
                               val config: MockProviderConfig,
                               private val server: HttpServer) : HttpHandler, MockServer {
-  private val mismatchedRequests = ConcurrentHashMap<Request, MutableList<PactVerificationResult>>()
-  private val matchedRequests = ConcurrentLinkedQueue<Request>()
-  private val requestMatcher = RequestMatching.apply(JavaConversions.asScalaBuffer(pact.interactions).toSeq())
+  @Volatile
+  private var armed = ArmedPact(pact)
+  private val executor = mockServerExecutor(config)
+  private val inFlightRequests = InFlightRequests()
 
   override fun handle(exchange: HttpExchange) {
     if (exchange.requestMethod == "OPTIONS" && exchange.requestHeaders.containsKey("X-PACT-BOOTCHECK")) {
@@ -74,16 +109,16 @@ abstract class BaseMockServer(val pact: RequestResponsePact,
         pactResponseToHttpExchange(response, exchange)
       } catch (e: Exception) {
         logger.error(e) { "Failed to generate response" }
-        pactResponseToHttpExchange(Response(500, mutableMapOf("Content-Type" to "application/json"),
-          OptionalBody.body("{\"error\": ${e.message}}")), exchange)
+        pactResponseToHttpExchange(renderedResponse(Response(500, mutableMapOf("Content-Type" to "application/json"),
+          OptionalBody.body("{\"error\": ${e.message}}"))), exchange)
       }
     }
   }
 
-  private fun pactResponseToHttpExchange(response: Response, exchange: HttpExchange) {
-    exchange.responseHeaders.putAll(response.headers.mapValues { listOf(it.value) })
-    if (response.body.isPresent()) {
-      val bytes = response.body.unwrap().toByteArray()
+  private fun pactResponseToHttpExchange(response: RenderedResponse, exchange: HttpExchange) {
+    exchange.responseHeaders.putAll(response.headers)
+    val bytes = response.body
+    if (bytes != null) {
       exchange.sendResponseHeaders(response.status, bytes.size.toLong())
       exchange.responseBody.write(bytes)
     } else {
@@ -92,28 +127,33 @@ abstract class BaseMockServer(val pact: RequestResponsePact,
     exchange.close()
   }
 
-  private fun generatePactResponse(request: Request): Response {
-    val matchResult = requestMatcher.matchInteraction(request)
+  private fun generatePactResponse(request: Request): RenderedResponse {
+    val state = armed
+    val matchResult = state.requestMatcher.matchInteraction(request)
     when (matchResult) {
       is FullRequestMatch -> {
         val interaction = matchResult.interaction() as RequestResponseInteraction
-        matchedRequests.add(interaction.request)
-        return interaction.response.generatedResponse()
+        val position = state.interactionPositions[interaction]
+        if (position != null) {
+          state.interactionHits.incrementAndGet(position)
+          return state.responses[position].render()
+        }
+        return PreRenderedResponse(interaction.response).render()
       }
       is PartialRequestMatch -> {
         val interaction = matchResult.problems().keys().head() as RequestResponseInteraction
-        mismatchedRequests.putIfAbsent(interaction.request, mutableListOf())
-        mismatchedRequests[interaction.request]?.add(PactVerificationResult.PartialMismatch(
+        state.mismatchedRequests.add(PactVerificationResult.PartialMismatch(
           ScalaCollectionUtils.toList(matchResult.problems()[interaction])))
       }
-      else -> {
-        mismatchedRequests.putIfAbsent(request, mutableListOf())
-        mismatchedRequests[request]?.add(PactVerificationResult.UnexpectedRequest(request))
-      }
+      else -> state.mismatchedRequests.add(PactVerificationResult.UnexpectedRequest(request))
     }
-    return invalidResponse(request)
+    return renderedResponse(invalidResponse(request))
   }
 
+  private fun renderedResponse(response: Response) = RenderedResponse(response.status,
+    response.headers.mapValues { listOf(it.value) },
+    if (response.body.isPresent()) response.body.unwrap().toByteArray() else null)
+
   private fun invalidResponse(request: Request) =
     Response(500, mapOf("Access-Control-Allow-Origin" to "*", "Content-Type" to "application/json",
       "X-Pact-Unexpected-Request" to "1"), OptionalBody.body("{ \"error\": \"Unexpected request : " +
@@ -133,11 +173,30 @@ abstract class BaseMockServer(val pact: RequestResponsePact,
 
   private fun initServer() {
     server.createContext("/", this)
+    // without an executor, requests are run on the server thread, which is what the server does by default
+    server.executor = InFlightRequestsExecutor(executor ?: Executor { it.run() }, inFlightRequests)
+  }
+
+  /**
+   * The pact the mock server is currently serving
+   */
+  val pact: RequestResponsePact
+    get() = armed.pact
+
+  /**
+   * Replaces the interactions the mock server expects with the ones from the pact, and clears the requests it has
+   * received. Requests that are already being handled are recorded against the previous pact.
+   */
+  fun arm(pact: RequestResponsePact) {
+    armed = ArmedPact(pact)
   }
 
   fun start() = server.start()
 
-  fun stop() = server.stop(0)
+  fun stop() {
+    server.stop(0)
+    executor?.shutdown()
+  }
 
   init {
     initServer()
@@ -149,37 +208,58 @@ abstract class BaseMockServer(val pact: RequestResponsePact,
     waitForServer()
 
     try {
-      testFn.run(this)
-      sleep(100) // give the mock server some time to have consistent state
-    } catch (e: Throwable) {
-      return PactVerificationResult.Error(e, validateMockServerState())
+      return runAndWritePactOnRunningServer(pact, pactVersion, testFn)
     } finally {
       stop()
     }
+  }
 
-    val result = validateMockServerState()
+  /**
+   * Runs the test function against the mock server, which must already be running and armed with the pact. Returns
+   * the result of running the test.
+   */
+  fun runAndWritePactOnRunningServer(pact: RequestResponsePact, pactVersion: PactSpecVersion, testFn: PactTestRun)
+    : PactVerificationResult {
+    val state = armed
+    try {
+      testFn.run(this)
+      waitForRequestsToFinish()
+    } catch (e: Throwable) {
+      return PactVerificationResult.Error(e, validateMockServerState(state))
+    }
+
+    val result = validateMockServerState(state)
     if (result is PactVerificationResult.Ok) {
       val pactDirectory = pactDirectory()
       logger.debug { "Writing pact ${pact.consumer.name} -> ${pact.provider.name} to file " +
         "${pact.fileForPact(pactDirectory)}" }
-      pact.write(pactDirectory, pactVersion)
+      ConsumerPactWriter.write(pact, pactDirectory, pactVersion)
     }
 
     return result
   }
 
-  private fun validateMockServerState(): PactVerificationResult {
-    if (mismatchedRequests.isNotEmpty()) {
-      return PactVerificationResult.Mismatches(mismatchedRequests.values.flatten())
+  private fun waitForRequestsToFinish() {
+    if (!inFlightRequests.awaitQuiescence()) {
+      logger.warn { "Mock server still had ${inFlightRequests.inFlight()} requests in flight after " +
+        "${InFlightRequests.DEFAULT_TIMEOUT_MS}ms" }
+    }
+  }
+
+  private fun validateMockServerState(state: ArmedPact): PactVerificationResult {
+    val pact = state.pact
+    if (state.mismatchedRequests.isNotEmpty()) {
+      return PactVerificationResult.Mismatches(state.mismatchedRequests.toList())
     }
-    val expectedRequests = pact.interactions.map { it.request }.filter { !matchedRequests.contains(it) }
+    val expectedRequests = pact.interactions.indices.filter { !state.received(it) }
+      .map { pact.interactions[it].request }
     if (expectedRequests.isNotEmpty()) {
       return PactVerificationResult.ExpectedButNotReceived(expectedRequests)
     }
     return PactVerificationResult.Ok
   }
 
-  private fun waitForServer() {
+  internal fun waitForServer() {
     org.apache.http.client.fluent.Request.Options(getUrl())
       .addHeader("X-PACT-BOOTCHECK", "true")
       .execute()
@@ -216,4 +296,67 @@ fun calculateCharset(headers: Map<String, String>): Charset {
   return default
 }
 
+/**
+ * Returns the executor for the mock server to run requests with, or null to run them on the server thread
+ */
+fun mockServerExecutor(config: MockProviderConfig): ExecutorService? {
+  return when (config.executor) {
+    MockServerExecutor.FIXED_POOL -> Executors.newFixedThreadPool(config.executorPoolSize, mockServerThreadFactory())
+    MockServerExecutor.VIRTUAL_THREADS -> virtualThreadExecutor()
+      ?: Executors.newFixedThreadPool(config.executorPoolSize, mockServerThreadFactory())
+    else -> null
+  }
+}
+
+private fun virtualThreadExecutor(): ExecutorService? {
+  return try {
+    Executors::class.java.getMethod("newVirtualThreadPerTaskExecutor").invoke(null) as ExecutorService
+  } catch (e: ReflectiveOperationException) {
+    BaseMockServer.Companion.logger.debug(e) { "Virtual threads are not supported by this JVM, using a fixed pool" }
+    null
+  } catch (e: UnsupportedOperationException) {
+    BaseMockServer.Companion.logger.debug(e) { "Virtual threads are not enabled in this JVM, using a fixed pool" }
+    null
+  }
+}
+
+/**
+ * Executor that counts a request as in flight from when the server hands it over, so requests that are still queued
+ * for a thread are waited for as well
+ */
+internal class InFlightRequestsExecutor(private val executor: Executor,
+                                        private val inFlightRequests: InFlightRequests) : Executor {
+  override fun execute(command: Runnable) {
+    inFlightRequests.started()
+    try {
+      executor.execute {
+        try {
+          command.run()
+        } finally {
+          inFlightRequests.finished()
+        }
+      }
+    } catch (e: Throwable) {
+      inFlightRequests.finished()
+      throw e
+    }
+  }
+}
+
+/**
+ * Thread factory for the threads mock servers run requests on. The threads are daemon threads, so they do not keep
+ * the JVM running
+ */
+fun mockServerThreadFactory(): ThreadFactory = MockServerThreadFactory()
+
+private class MockServerThreadFactory : ThreadFactory {
+  private val count = AtomicInteger()
+
+  override fun newThread(runnable: Runnable): Thread {
+    val thread = Thread(runnable, "pact-mock-server-${count.incrementAndGet()}")
+    thread.isDaemon = true
+    return thread
+  }
+}
+
 fun pactDirectory() = System.getProperty("pact.rootDir", "target/pacts")!!
@@ -0,0 +1,97 @@
+package au.com.dius.pact.consumer
+
+import au.com.dius.pact.model.MockHttpsProviderConfig
+import au.com.dius.pact.model.MockProviderConfig
+import au.com.dius.pact.model.MockServerExecutor
+import au.com.dius.pact.model.RequestResponsePact
+import mu.KLogging
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.LinkedBlockingDeque
+
+/**
+ * Pool of mock servers that are kept running between tests, so that a test only has to arm a server with its pact
+ * instead of binding, boot checking and stopping a new one. Pooling is enabled by setting the
+ * `pact.mockServer.pooled` system property to `true`, and the number of idle servers kept for each config can be set
+ * with the `pact.mockServer.poolSize` system property.
+ *
+ * Only configs with a random port are pooled, as a server on a fixed port can not be shared by tests running at the
+ * same time. HTTPS configs are not pooled, as each one has its own certificate.
+ */
+object MockServerPool : KLogging() {
+  const val POOLED_PROPERTY = "pact.mockServer.pooled"
+  const val POOL_SIZE_PROPERTY = "pact.mockServer.poolSize"
+  @JvmField
+  val DEFAULT_POOL_SIZE = Runtime.getRuntime().availableProcessors()
+
+  private data class PoolKey(val hostname: String, val scheme: String, val executor: MockServerExecutor,
+                             val executorPoolSize: Int)
+
+  private val idleServers = ConcurrentHashMap<PoolKey, LinkedBlockingDeque<BaseMockServer>>()
+
+  private val poolSize by lazy {
+    System.getProperty(POOL_SIZE_PROPERTY)?.toIntOrNull() ?: DEFAULT_POOL_SIZE
+  }
+
+  /**
+   * If the mock servers for consumer tests should be taken from the pool
+   */
+  @JvmStatic
+  fun enabled() = System.getProperty(POOLED_PROPERTY)?.toBoolean() ?: false
+
+  /**
+   * If mock servers for the config can be pooled
+   */
+  @JvmStatic
+  fun canPool(config: MockProviderConfig) = config.port == 0 && config !is MockHttpsProviderConfig
+
+  /**
+   * Returns a running mock server armed with the pact. An idle server is used if there is one, otherwise a new one is
+   * started. The server must be given back with [release] once the test has finished with it.
+   */
+  @JvmStatic
+  fun acquire(pact: RequestResponsePact, config: MockProviderConfig): BaseMockServer {
+    val server = idleServers(config).pollFirst()
+    if (server != null) {
+      server.arm(pact)
+      return server
+    }
+    return startServer(pact, config)
+  }
+
+  /**
+   * Returns the mock server to the pool. The server is stopped if the pool already has enough idle servers.
+   */
+  @JvmStatic
+  fun release(server: BaseMockServer) {
+    if (!canPool(server.config) || !idleServers(server.config).offerFirst(server)) {
+      server.stop()
+    }
+  }
+
+  /**
+   * Stops all the idle servers in the pool
+   */
+  @JvmStatic
+  fun shutdown() {
+    idleServers.values.forEach { servers ->
+      generateSequence { servers.pollFirst() }.forEach { it.stop() }
+    }
+  }
+
+  private fun idleServers(config: MockProviderConfig) = idleServers.computeIfAbsent(
+    PoolKey(config.hostname, config.scheme, config.executor, config.executorPoolSize)) {
+    LinkedBlockingDeque(poolSize)
+  }
+
+  private fun startServer(pact: RequestResponsePact, config: MockProviderConfig): BaseMockServer {
+    logger.debug { "Starting a new pooled mock server for ${config.hostname}" }
+    val server = mockServer(pact, config) as BaseMockServer
+    // the server thread takes its daemon status from the thread that starts it, so pooled servers are started from a
+    // daemon thread to not keep the JVM running after the tests have finished
+    val starter = mockServerThreadFactory().newThread { server.start() }
+    starter.start()
+    starter.join()
+    server.waitForServer()
+    return server
+  }
+}
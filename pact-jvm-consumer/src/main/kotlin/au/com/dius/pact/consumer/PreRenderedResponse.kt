@@ -0,0 +1,58 @@
+package au.com.dius.pact.consumer
+
+import au.com.dius.pact.model.ContentType
+import au.com.dius.pact.model.Response
+import mu.KLogging
+
+/**
+ * Response as it is sent by the mock server
+ */
+class RenderedResponse(val status: Int, val headers: Map<String, List<String>>, val body: ByteArray?) {
+  override fun toString() = "\tstatus: $status\n\theaders: $headers\n\tbody: ${body?.toString(Charsets.UTF_8)}"
+}
+
+/**
+ * Response of an interaction rendered once, when the mock server is armed with the pact. A response without
+ * generators is rendered completely and the same bytes are sent for every request. A response with generators keeps
+ * the parts that do not change, and only applies the generators for each request.
+ */
+class PreRenderedResponse(private val response: Response) {
+  private val generators = response.generators.compile()
+  private val headers = response.headers.mapValues { listOf(it.value) }
+  private val body = generators.bodyTemplate(response.body, ContentType(response.mimeType()))
+  private val rendered = if (generators.isEmpty()) renderStatic() else null
+
+  /**
+   * Returns the response to send, with the generators applied
+   */
+  fun render(): RenderedResponse {
+    if (rendered != null) {
+      return rendered
+    }
+
+    var status: Int = response.status
+    generators.statusGenerators.forEach { (_, generator) -> status = toStatus(generator.generate(status)) }
+    val headers = if (generators.headerGenerators.isEmpty()) {
+      this.headers
+    } else {
+      val generated = this.headers.toMutableMap()
+      generators.headerGenerators.forEach { (key, generator) ->
+        generated[key] = listOf(generator.generate(response.headers[key]).toString())
+      }
+      generated
+    }
+    return RenderedResponse(status, headers, body.render())
+  }
+
+  // bodies that fail to render are rendered for each request, so the error is returned for the request as before
+  private fun renderStatic() = try {
+    RenderedResponse(response.status, headers, body.render())
+  } catch (e: Exception) {
+    logger.debug(e) { "Could not render the response body, it will be rendered for each request" }
+    null
+  }
+
+  companion object : KLogging() {
+    private fun toStatus(value: Any) = if (value is Number) value.toInt() else value.toString().toInt()
+  }
+}
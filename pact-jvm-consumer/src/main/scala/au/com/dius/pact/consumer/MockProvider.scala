@@ -1,5 +1,7 @@
 package au.com.dius.pact.consumer
 
+import java.util.concurrent.{LinkedBlockingQueue, ThreadPoolExecutor, TimeUnit}
+
 import au.com.dius.pact.model._
 import com.typesafe.scalalogging.StrictLogging
 
@@ -28,21 +30,34 @@ object DefaultMockProvider {
     }
 }
 
-// TODO: eliminate horrid state mutation and synchronisation.  Reactive stuff to the rescue?
 abstract class StatefulMockProvider extends MockProvider with StrictLogging {
-  private var sessionVar = PactSession.empty
-  private var pactVar: Option[Pact] = None
+  @volatile private var sessionVar = new ConcurrentPactSession(Seq())
+  @volatile private var pactVar: Option[Pact] = None
+
+  // requests are matched on these threads instead of the threads of the server event loop. The pool is created for
+  // the first request after the provider is started and shut down when it is stopped
+  private var workerPool: Option[ThreadPoolExecutor] = None
+
+  private val inFlightRequests = new InFlightRequests()
 
-  private def waitForRequestsToFinish() = Thread.sleep(100)
+  private def waitForRequestsToFinish(): Unit = {
+    if (!inFlightRequests.awaitQuiescence(InFlightRequests.DEFAULT_TIMEOUT_MS)) {
+      logger.warn(s"Mock provider still had ${inFlightRequests.inFlight()} requests in flight after " +
+        s"${InFlightRequests.DEFAULT_TIMEOUT_MS}ms")
+    }
+  }
 
-  def session: PactSession  = sessionVar
+  /**
+    * The results of the requests received so far
+    */
+  def session: PactSession = sessionVar.snapshot
   def pact: Option[Pact] = pactVar
   
   def start(): Unit
   
   override def start(pact: Pact): Unit = synchronized {
     pactVar = Some(pact)
-    sessionVar = PactSession.forPact(pact)
+    sessionVar = ConcurrentPactSession.forPact(pact)
     start()
   }
 
@@ -67,11 +82,55 @@ abstract class StatefulMockProvider extends MockProvider with StrictLogging {
     }
   }
 
-  final def handleRequest(req: Request): Response = synchronized {
-    logger.debug("Received request: " + req)
-    val (response, newSession) = session.receiveRequest(req)
-    logger.debug("Generating response: " + response)
-    sessionVar = newSession
-    response
+  final def handleRequest(req: Request): Response = {
+    inFlightRequests.started()
+    try {
+      logger.debug("Received request: " + req)
+      val response = sessionVar.receiveRequest(req)
+      logger.debug("Generating response: " + response)
+      response
+    } finally {
+      inFlightRequests.finished()
+    }
+  }
+
+  private def workers: ThreadPoolExecutor = synchronized {
+    workerPool.getOrElse {
+      val pool = new ThreadPoolExecutor(config.getExecutorPoolSize, config.getExecutorPoolSize, 30, TimeUnit.SECONDS,
+        new LinkedBlockingQueue[Runnable](), MockHttpServerKt.mockServerThreadFactory())
+      pool.allowCoreThreadTimeOut(true)
+      workerPool = Some(pool)
+      pool
+    }
+  }
+
+  /**
+    * Runs the handling of a request on the worker pool
+    */
+  protected def runOnWorker(thunk: => Unit): Unit = {
+    inFlightRequests.started()
+    workers.execute(new Runnable {
+      override def run(): Unit = try thunk finally inFlightRequests.finished()
+    })
+  }
+
+  /**
+    * Shuts down the worker pool. Requests that have already been received are still handled
+    */
+  protected def stopWorkers(): Unit = synchronized {
+    workerPool.foreach(_.shutdown())
+    workerPool = None
+  }
+
+  /**
+    * Unfiltered plan execution that matches the requests on the worker pool, so the event loop is not blocked while
+    * matching
+    */
+  protected trait WorkerPoolExecution {
+    def executeIntent(thunk: => Unit): Unit = runOnWorker(thunk)
+
+    def executeResponse(thunk: => Unit): Unit = thunk
+
+    def shutdown(): Unit = stopWorkers()
   }
 }
@@ -1,5 +1,7 @@
 package au.com.dius.pact.consumer
 
+import java.util.concurrent.ConcurrentLinkedDeque
+
 import au.com.dius.pact.model._
 import org.apache.commons.lang3.StringEscapeUtils
 
@@ -31,7 +33,7 @@ object PactSession {
 
 case class PactSession(expected: Seq[Interaction], results: PactSessionResults) {
   import scala.collection.JavaConversions._
-  private def matcher = RequestMatching(expected.asInstanceOf[Seq[RequestResponseInteraction]])
+  private def matcher = RequestMatching.forInteractions(expected.asInstanceOf[Seq[RequestResponseInteraction]])
 
   val CrossSiteHeaders = Map[String, String]("Access-Control-Allow-Origin" -> "*")
 
@@ -43,17 +45,28 @@ case class PactSession(expected: Seq[Interaction], results: PactSessionResults)
   }
 
   def receiveRequest(req: Request): (Response, PactSession) = {
-    val invalidResponse = invalidRequest(req)
-    
+    val (response, result) = respondTo(req)
+    (response, record(req, result))
+  }
+
+  /**
+    * Matches the request to the expected interactions, without recording the result
+    */
+  def respondTo(req: Request): (Response, RequestMatch) = {
     matcher.matchInteraction(req) match {
-      case FullRequestMatch(inter) => 
-        (inter.asInstanceOf[RequestResponseInteraction].getResponse, recordMatched(inter))
-        
-      case p @ PartialRequestMatch(problems) => 
-        (invalidResponse, recordAlmostMatched(p))
-        
-      case RequestMismatch => 
-        (invalidResponse, recordUnexpected(req))
+      case full @ FullRequestMatch(inter) =>
+        (inter.asInstanceOf[RequestResponseInteraction].getResponse, full)
+
+      case result =>
+        (invalidRequest(req), result)
+    }
+  }
+
+  def record(req: Request, result: RequestMatch): PactSession = {
+    result match {
+      case FullRequestMatch(inter) => recordMatched(inter)
+      case p @ PartialRequestMatch(_) => recordAlmostMatched(p)
+      case RequestMismatch => recordUnexpected(req)
     }
   }
   
@@ -70,3 +83,39 @@ case class PactSession(expected: Seq[Interaction], results: PactSessionResults)
   
   def remainingResults: PactSessionResults = results.addMissing(expected diff results.matched)
 }
+
+object ConcurrentPactSession {
+  import scala.collection.JavaConversions._
+
+  def forPact(pact: Pact) = new ConcurrentPactSession(pact.getInteractions)
+}
+
+/**
+  * Session for a mock provider that handles requests concurrently. The results are recorded without locking, and
+  * read back as a PactSession with the same results the immutable session would have recorded.
+  */
+class ConcurrentPactSession(val expected: Seq[Interaction]) {
+  import scala.collection.JavaConverters._
+
+  private val session = PactSession(expected, PactSessionResults.empty)
+  // the newest results are at the head, as with the lists of PactSessionResults
+  private val matched = new ConcurrentLinkedDeque[Interaction]()
+  private val almostMatched = new ConcurrentLinkedDeque[PartialRequestMatch]()
+  private val unexpected = new ConcurrentLinkedDeque[Request]()
+
+  def receiveRequest(req: Request): Response = {
+    val (response, result) = session.respondTo(req)
+    result match {
+      case FullRequestMatch(inter) => matched.addFirst(inter)
+      case p @ PartialRequestMatch(_) => almostMatched.addFirst(p)
+      case RequestMismatch => unexpected.addFirst(req)
+    }
+    response
+  }
+
+  /**
+    * The results recorded so far
+    */
+  def snapshot: PactSession = PactSession(expected, PactSessionResults(matched.asScala.toList,
+    almostMatched.asScala.toList, Nil, unexpected.asScala.toList))
+}
@@ -17,8 +17,7 @@ class UnfilteredHttpsMockProvider(val config: MockHttpsProviderConfig) extends S
   
   @Sharable
   object Routes extends unettyc.Plan
-      with unettyc.SynchronousExecution
-      with unetty.ServerErrorResponse {
+      with unetty.ServerErrorResponse with WorkerPoolExecution {
 
       override def intent: unettyc.Plan.Intent = {
         case req => convertResponse(handleRequest(convertRequest(req)))
@@ -31,5 +30,8 @@ class UnfilteredHttpsMockProvider(val config: MockHttpsProviderConfig) extends S
   
   def start(): Unit = server.start()
   
-  def stop(): Unit = server.stop()
+  def stop(): Unit = {
+    server.stop()
+    stopWorkers()
+  }
 }
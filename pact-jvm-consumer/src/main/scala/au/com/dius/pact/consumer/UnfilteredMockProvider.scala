@@ -18,8 +18,7 @@ class UnfilteredMockProvider(val config: MockProviderConfig) extends StatefulMoc
   
   @Sharable
   object Routes extends unettyc.Plan
-      with unettyc.SynchronousExecution
-      with unetty.ServerErrorResponse {
+      with unetty.ServerErrorResponse with WorkerPoolExecution {
 
       override def intent: unettyc.Plan.Intent = {
         case req => convertResponse(handleRequest(convertRequest(req)))
@@ -32,5 +31,8 @@ class UnfilteredMockProvider(val config: MockProviderConfig) extends StatefulMoc
   
   def start(): Unit = server.start()
   
-  def stop(): Unit = server.stop()
+  def stop(): Unit = {
+    server.stop()
+    stopWorkers()
+  }
 }
@@ -0,0 +1,94 @@
+package au.com.dius.pact.consumer
+
+import au.com.dius.pact.model.BasePact
+import au.com.dius.pact.model.Consumer
+import au.com.dius.pact.model.PactReader
+import au.com.dius.pact.model.PactSpecVersion
+import au.com.dius.pact.model.Provider
+import spock.lang.Specification
+
+class ConsumerPactWriterSpec extends Specification {
+
+  private File pactDir
+
+  def setup() {
+    pactDir = File.createTempDir()
+  }
+
+  def cleanup() {
+    System.clearProperty(ConsumerPactWriter.DEFERRED_PROPERTY)
+    ConsumerPactWriter.flush()
+    pactDir.deleteDir()
+  }
+
+  private static pactFor(String description) {
+    ConsumerPactBuilder.consumer('writer_consumer').hasPactWith('writer_provider')
+      .uponReceiving(description).path('/path').method('GET')
+      .willRespondWith().status(200)
+      .toPact()
+  }
+
+  def 'writes the pact straight away by default'() {
+    given:
+    def pact = pactFor('a request')
+
+    when:
+    ConsumerPactWriter.write(pact, pactDir.toString(), PactSpecVersion.V3)
+
+    then:
+    pact.fileForPact(pactDir.toString()).exists()
+  }
+
+  def 'when deferred, writes pacts of other types straight away'() {
+    given:
+    System.setProperty(ConsumerPactWriter.DEFERRED_PROPERTY, 'true')
+    def pact = Mock(BasePact) {
+      getConsumer() >> new Consumer('writer_consumer')
+      getProvider() >> new Provider('writer_provider')
+    }
+
+    when:
+    ConsumerPactWriter.write(pact, pactDir.toString(), PactSpecVersion.V3)
+
+    then:
+    1 * pact.write(pactDir.toString(), PactSpecVersion.V3)
+  }
+
+  def 'when deferred, merges the pacts and writes them when flushed'() {
+    given:
+    System.setProperty(ConsumerPactWriter.DEFERRED_PROPERTY, 'true')
+    def first = pactFor('a request')
+    def second = pactFor('another request')
+    def file = first.fileForPact(pactDir.toString())
+
+    when:
+    ConsumerPactWriter.write(first, pactDir.toString(), PactSpecVersion.V3)
+    ConsumerPactWriter.write(second, pactDir.toString(), PactSpecVersion.V3)
+
+    then:
+    !file.exists()
+    first.interactions*.description == ['a request']
+
+    when:
+    ConsumerPactWriter.flush()
+
+    then:
+    PactReader.loadPact(file).interactions*.description.toSet() == ['a request', 'another request'].toSet()
+  }
+
+  def 'when deferred, merges the pacts with the existing pact file'() {
+    given:
+    pactFor('an existing request').write(pactDir.toString(), PactSpecVersion.V3)
+    System.setProperty(ConsumerPactWriter.DEFERRED_PROPERTY, 'true')
+    def pact = pactFor('a request')
+
+    when:
+    ConsumerPactWriter.write(pact, pactDir.toString(), PactSpecVersion.V3)
+    ConsumerPactWriter.flush()
+
+    then:
+    PactReader.loadPact(pact.fileForPact(pactDir.toString())).interactions*.description.toSet() ==
+      ['an existing request', 'a request'].toSet()
+  }
+
+}
@@ -0,0 +1,41 @@
+package au.com.dius.pact.consumer
+
+import spock.lang.Specification
+
+class InFlightRequestsSpec extends Specification {
+
+  private InFlightRequests inFlightRequests = new InFlightRequests()
+
+  def 'returns straight away when there are no requests in flight'() {
+    expect:
+    inFlightRequests.awaitQuiescence(0)
+  }
+
+  def 'waits for the requests in flight to finish'() {
+    given:
+    inFlightRequests.started()
+    inFlightRequests.started()
+
+    when:
+    Thread.start {
+      inFlightRequests.finished()
+      sleep(50)
+      inFlightRequests.finished()
+    }
+    def result = inFlightRequests.awaitQuiescence(5000)
+
+    then:
+    result
+    inFlightRequests.inFlight() == 0
+  }
+
+  def 'returns false when the requests do not finish before the timeout'() {
+    given:
+    inFlightRequests.started()
+
+    expect:
+    !inFlightRequests.awaitQuiescence(10)
+    inFlightRequests.inFlight() == 1
+  }
+
+}
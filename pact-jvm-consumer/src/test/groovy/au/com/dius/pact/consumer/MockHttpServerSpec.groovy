@@ -1,8 +1,19 @@
 package au.com.dius.pact.consumer
 
+import au.com.dius.pact.model.MockProviderConfig
+import au.com.dius.pact.model.MockServerExecutor
+import au.com.dius.pact.model.PactSpecVersion
+import org.apache.http.client.fluent.Request
+import spock.lang.IgnoreIf
+import spock.lang.Requires
 import spock.lang.Specification
 import spock.lang.Unroll
 
+import java.util.concurrent.Callable
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.Executors
+import java.util.concurrent.ThreadPoolExecutor
+
 class MockHttpServerSpec extends Specification {
 
   @Unroll
@@ -36,4 +47,152 @@ class MockHttpServerSpec extends Specification {
     MockHttpServerKt.calculateCharset(['content-type': 'text/plain; charset=ISO-8859-1']).name() == 'ISO-8859-1'
   }
 
+  def 'runs requests on the server thread by default'() {
+    expect:
+    MockHttpServerKt.mockServerExecutor(MockProviderConfig.httpConfig()) == null
+  }
+
+  def 'creates a fixed pool executor with the configured size'() {
+    given:
+    def config = MockProviderConfig.httpConfig().withExecutor(MockServerExecutor.FIXED_POOL, 3)
+
+    when:
+    def executor = MockHttpServerKt.mockServerExecutor(config)
+
+    then:
+    executor instanceof ThreadPoolExecutor
+    executor.corePoolSize == 3
+
+    cleanup:
+    executor?.shutdown()
+  }
+
+  @IgnoreIf({ MockHttpServerSpec.virtualThreadsSupported() })
+  def 'falls back to a fixed pool when virtual threads are not supported'() {
+    given:
+    def config = MockProviderConfig.httpConfig().withExecutor(MockServerExecutor.VIRTUAL_THREADS, 3)
+
+    when:
+    def executor = MockHttpServerKt.mockServerExecutor(config)
+
+    then:
+    executor instanceof ThreadPoolExecutor
+    executor.corePoolSize == 3
+
+    cleanup:
+    executor?.shutdown()
+  }
+
+  @Requires({ MockHttpServerSpec.virtualThreadsSupported() })
+  def 'creates a virtual thread executor when virtual threads are supported'() {
+    given:
+    def config = MockProviderConfig.httpConfig().withExecutor(MockServerExecutor.VIRTUAL_THREADS, 3)
+
+    when:
+    def executor = MockHttpServerKt.mockServerExecutor(config)
+
+    then:
+    executor != null
+    !(executor instanceof ThreadPoolExecutor)
+
+    cleanup:
+    executor?.shutdown()
+  }
+
+  def 'counts requests queued for the executor as in flight'() {
+    given:
+    def inFlightRequests = new InFlightRequests()
+    def pool = Executors.newFixedThreadPool(1)
+    def executor = new InFlightRequestsExecutor(pool, inFlightRequests)
+    def release = new CountDownLatch(1)
+
+    when:
+    2.times { executor.execute { release.await() } }
+
+    then:
+    inFlightRequests.inFlight() == 2
+
+    when:
+    release.countDown()
+
+    then:
+    inFlightRequests.awaitQuiescence(1000)
+    inFlightRequests.inFlight() == 0
+
+    cleanup:
+    pool.shutdown()
+  }
+
+  def 'handles concurrent requests with a fixed pool executor'() {
+    given:
+    def pact = ConsumerPactBuilder.consumer('executor_consumer').hasPactWith('executor_provider')
+      .uponReceiving('a request').path('/path').method('GET')
+      .willRespondWith().status(200)
+      .toPact()
+    def config = MockProviderConfig.httpConfig().withExecutor(MockServerExecutor.FIXED_POOL, 4)
+    def server = new MockHttpServer(pact, config)
+    def clients = Executors.newFixedThreadPool(8)
+
+    when:
+    server.start()
+    def responses = (1..20).collect {
+      clients.submit({ Request.Get(server.url + '/path').execute().returnResponse().statusLine.statusCode } as Callable)
+    }
+
+    then:
+    responses*.get() == [200] * 20
+
+    cleanup:
+    server.stop()
+    clients.shutdown()
+  }
+
+  def 'reports the interactions that were not received'() {
+    given:
+    def pact = ConsumerPactBuilder.consumer('validation_consumer').hasPactWith('validation_provider')
+      .uponReceiving('a request').path('/path').method('GET')
+      .willRespondWith().status(200)
+      .uponReceiving('another request').path('/other').method('GET')
+      .willRespondWith().status(200)
+      .toPact()
+    def server = new MockHttpServer(pact, MockProviderConfig.httpConfig())
+
+    when:
+    def result = server.runAndWritePact(pact, PactSpecVersion.V3) { mockServer ->
+      Request.Get(mockServer.url + '/path').execute().returnResponse()
+    }
+
+    then:
+    result instanceof PactVerificationResult.ExpectedButNotReceived
+    result.expectedRequests*.path == ['/other']
+  }
+
+  def 'counts interactions with the same request as a received one as received'() {
+    given:
+    def pact = ConsumerPactBuilder.consumer('validation_consumer').hasPactWith('validation_provider')
+      .uponReceiving('a request').path('/path').method('GET')
+      .willRespondWith().status(200)
+      .uponReceiving('the same request').path('/path').method('GET')
+      .willRespondWith().status(201)
+      .toPact()
+    def server = new MockHttpServer(pact, MockProviderConfig.httpConfig())
+
+    when:
+    def result = server.runAndWritePact(pact, PactSpecVersion.V3) { mockServer ->
+      Request.Get(mockServer.url + '/path').execute().returnResponse()
+    }
+
+    then:
+    result == PactVerificationResult.Ok.INSTANCE
+  }
+
+  static boolean virtualThreadsSupported() {
+    try {
+      Executors.getMethod('newVirtualThreadPerTaskExecutor').invoke(null).shutdown()
+      true
+    } catch (ReflectiveOperationException | UnsupportedOperationException e) {
+      false
+    }
+  }
+
 }
@@ -0,0 +1,86 @@
+package au.com.dius.pact.consumer
+
+import au.com.dius.pact.model.MockProviderConfig
+import au.com.dius.pact.model.PactSpecVersion
+import org.apache.http.client.fluent.Request
+import spock.lang.Specification
+
+import java.util.concurrent.Callable
+import java.util.concurrent.Executors
+
+class MockServerPoolSpec extends Specification {
+
+  private static pact(String path) {
+    ConsumerPactBuilder.consumer('pool_consumer').hasPactWith('pool_provider')
+      .uponReceiving('a request to ' + path).path(path).method('GET')
+      .willRespondWith().status(200)
+      .toPact()
+  }
+
+  def cleanup() {
+    MockServerPool.shutdown()
+  }
+
+  def 'reuses a released server armed with the next pact'() {
+    given:
+    def config = MockProviderConfig.httpConfig()
+    def first = MockServerPool.acquire(pact('/first'), config)
+    MockServerPool.release(first)
+
+    when:
+    def second = MockServerPool.acquire(pact('/second'), config)
+
+    then:
+    second.is(first)
+    Request.Get(second.url + '/second').execute().returnResponse().statusLine.statusCode == 200
+    Request.Get(second.url + '/first').execute().returnResponse().statusLine.statusCode == 500
+
+    cleanup:
+    MockServerPool.release(second)
+  }
+
+  def 'the results of a test do not carry over to the next test run on the server'() {
+    given:
+    def config = MockProviderConfig.httpConfig(MockProviderConfig.LOCALHOST, 0, PactSpecVersion.V3)
+
+    when:
+    def failed = ConsumerPactRunnerKt.runPooledConsumerTest(pact('/path'), config) { mockServer ->
+      Request.Get(mockServer.url + '/unexpected').execute().returnResponse()
+    }
+    def passed = ConsumerPactRunnerKt.runPooledConsumerTest(pact('/path'), config) { mockServer ->
+      Request.Get(mockServer.url + '/path').execute().returnResponse()
+    }
+
+    then:
+    failed instanceof PactVerificationResult.Mismatches
+    passed == PactVerificationResult.Ok.INSTANCE
+  }
+
+  def 'gives each test running at the same time its own server'() {
+    given:
+    def config = MockProviderConfig.httpConfig(MockProviderConfig.LOCALHOST, 0, PactSpecVersion.V3)
+    def tests = Executors.newFixedThreadPool(4)
+
+    when:
+    def results = (1..8).collect { i ->
+      tests.submit({
+        ConsumerPactRunnerKt.runPooledConsumerTest(pact("/path/$i"), config) { mockServer ->
+          assert Request.Get(mockServer.url + "/path/$i").execute().returnResponse().statusLine.statusCode == 200
+        }
+      } as Callable)
+    }
+
+    then:
+    results*.get().every { it == PactVerificationResult.Ok.INSTANCE }
+
+    cleanup:
+    tests.shutdown()
+  }
+
+  def 'does not pool servers on a fixed port'() {
+    expect:
+    !MockServerPool.canPool(MockProviderConfig.httpConfig(MockProviderConfig.LOCALHOST, 8080))
+    MockServerPool.canPool(MockProviderConfig.httpConfig())
+  }
+
+}
@@ -0,0 +1,83 @@
+package au.com.dius.pact.consumer
+
+import au.com.dius.pact.model.OptionalBody
+import au.com.dius.pact.model.Response
+import au.com.dius.pact.model.generators.Category
+import au.com.dius.pact.model.generators.Generators
+import au.com.dius.pact.model.generators.RandomIntGenerator
+import au.com.dius.pact.model.generators.RandomStringGenerator
+import au.com.dius.pact.model.generators.UuidGenerator
+import groovy.json.JsonSlurper
+import spock.lang.Specification
+
+class PreRenderedResponseSpec extends Specification {
+
+  private static final String JSON_BODY = '{"a": "A", "b": [1, 2, {"c": "C"}]}'
+
+  private static String body(RenderedResponse response) {
+    new String(response.body, 'UTF-8')
+  }
+
+  def 'renders a response without generators once'() {
+    given:
+    def response = new Response(201, ['Content-Type': 'application/json'], OptionalBody.body(JSON_BODY))
+    def preRendered = new PreRenderedResponse(response)
+
+    when:
+    def rendered = preRendered.render()
+
+    then:
+    rendered.is(preRendered.render())
+    rendered.status == 201
+    rendered.headers == ['Content-Type': ['application/json']]
+    body(rendered) == response.generatedResponse().body.value
+  }
+
+  def 'renders a missing body as no body'() {
+    expect:
+    new PreRenderedResponse(new Response(204)).render().body == null
+  }
+
+  def 'applies the generators for each render'() {
+    given:
+    def generators = new Generators()
+    generators.addGenerator(Category.STATUS, new RandomIntGenerator(400, 499))
+    generators.addGenerator(Category.HEADER, 'A', new UuidGenerator())
+    generators.addGenerator(Category.BODY, '$.b[2].c', new RandomStringGenerator())
+    def response = new Response(200, ['Content-Type': 'application/json', A: 'a', B: 'b'],
+      OptionalBody.body(JSON_BODY), null, generators)
+    def preRendered = new PreRenderedResponse(response)
+
+    when:
+    def first = preRendered.render()
+    def second = preRendered.render()
+    def firstBody = new JsonSlurper().parseText(body(first))
+    def secondBody = new JsonSlurper().parseText(body(second))
+
+    then:
+    first.status >= 400 && first.status < 500
+    first.headers.A != ['a']
+    first.headers.B == ['b']
+    first.headers.A != second.headers.A
+    firstBody.a == 'A'
+    firstBody.b[0..1] == [1, 2]
+    firstBody.b[2].c != 'C'
+    firstBody.b[2].c != secondBody.b[2].c
+    response.body.value == JSON_BODY
+  }
+
+  def 'renders a body that can not be parsed for each request'() {
+    given:
+    def generators = new Generators()
+    generators.addGenerator(Category.BODY, '$.a', new RandomStringGenerator())
+    def preRendered = new PreRenderedResponse(new Response(200, ['Content-Type': 'application/json'],
+      OptionalBody.body('{"a": '), null, generators))
+
+    when:
+    preRendered.render()
+
+    then:
+    thrown(Exception)
+  }
+
+}
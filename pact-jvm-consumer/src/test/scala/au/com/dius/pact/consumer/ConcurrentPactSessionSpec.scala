@@ -0,0 +1,53 @@
+package au.com.dius.pact.consumer
+
+import java.util.concurrent.{Callable, Executors}
+
+import au.com.dius.pact.consumer.Fixtures._
+import au.com.dius.pact.model.{Request, Response}
+import org.junit.runner.RunWith
+import org.specs2.mutable.Specification
+import org.specs2.runner.JUnitRunner
+
+@RunWith(classOf[JUnitRunner])
+class ConcurrentPactSessionSpec extends Specification {
+
+  val unexpectedRequest = new Request("GET", "/unexpected")
+
+  "concurrent pact session" should {
+
+    "record the same results as the immutable session" in {
+      val session = ConcurrentPactSession.forPact(pact)
+      val requests = Seq(request, unexpectedRequest, request)
+
+      val responses = requests.map(session.receiveRequest)
+      val expected = requests.foldLeft((Seq[Response](), PactSession.forPact(pact))) {
+        case ((responses, immutable), req) =>
+          val (response, next) = immutable.receiveRequest(req)
+          (responses :+ response, next)
+      }
+
+      responses must_== expected._1
+      session.snapshot.remainingResults must_== expected._2.remainingResults
+    }
+
+    "record requests received at the same time" in {
+      val session = ConcurrentPactSession.forPact(pact)
+      val pool = Executors.newFixedThreadPool(8)
+      try {
+        val futures = (1 to 100).map(i => pool.submit(new Callable[Unit] {
+          override def call(): Unit = session.receiveRequest(if (i % 2 == 0) request else unexpectedRequest)
+        }))
+        futures.foreach(_.get())
+      } finally {
+        pool.shutdown()
+      }
+
+      val results = session.snapshot.remainingResults
+      results.matched must haveSize(50)
+      results.unexpected must haveSize(50)
+      results.missing must beEmpty
+    }
+
+  }
+
+}
@@ -4,6 +4,11 @@ import groovy.json.JsonOutput
 
 private const val NEW_LINE = '\n'
 
+/**
+ * Maximum size in characters of a generated object diff. Larger diffs are truncated.
+ */
+const val MAX_DIFF_SIZE = 64 * 1024
+
 fun generateDiff(expectedBodyString: String, actualBodyString: String): List<String> {
   val expectedLines = expectedBodyString.split(NEW_LINE)
   val actualLines = actualBodyString.split(NEW_LINE)
@@ -31,7 +36,8 @@ fun generateDiff(expectedBodyString: String, actualBodyString: String): List<Str
   return diff
 }
 
-fun generateObjectDiff(expected: Any?, actual: Any?): String {
+@JvmOverloads
+fun generateObjectDiff(expected: Any?, actual: Any?, maxSize: Int = MAX_DIFF_SIZE): String {
     var actualJson = ""
     if (actual != null) {
       actualJson = JsonOutput.prettyPrint(JsonOutput.toJson(actual))
@@ -42,5 +48,20 @@ fun generateObjectDiff(expected: Any?, actual: Any?): String {
       expectedJson = JsonOutput.prettyPrint(JsonOutput.toJson(expected))
     }
 
-    return generateDiff(expectedJson, actualJson).joinToString(separator = NEW_LINE.toString())
+    return joinDiff(generateDiff(expectedJson, actualJson), maxSize)
+}
+
+private fun joinDiff(diff: List<String>, maxSize: Int): String {
+  val result = StringBuilder()
+  for ((index, line) in diff.withIndex()) {
+    if (index > 0) {
+      result.append(NEW_LINE)
+    }
+    if (result.length + line.length > maxSize) {
+      result.append("... (diff truncated, ${diff.size - index} more lines)")
+      break
+    }
+    result.append(line)
+  }
+  return result.toString()
 }
@@ -100,7 +100,7 @@ fun <Mismatch> matchEquality(path: List<String>, expected: Any?, actual: Any?,
 
 fun <Mismatch> matchRegex(regex: String, path: List<String>, expected: Any?, actual: Any?,
                           mismatchFactory: MismatchFactory<Mismatch>): List<Mismatch> {
-  val matches = safeToString(actual).matches(Regex(regex))
+  val matches = PatternCache.matches(regex, safeToString(actual))
   logger.debug { "comparing ${valueOf(actual)} with regexp $regex at $path -> $matches" }
   return if (matches
     || expected is List<*> && actual is List<*>
@@ -0,0 +1,38 @@
+package au.com.dius.pact.matchers
+
+import com.google.common.cache.Cache
+import com.google.common.cache.CacheBuilder
+import java.util.regex.Pattern
+
+/**
+ * Bounded cache of compiled regular expressions shared by the matchers, so the same expression is not recompiled for
+ * every value it is checked against
+ */
+object PatternCache {
+  private const val MAX_PATTERNS = 2000L
+
+  private val patterns: Cache<String, Pattern> = CacheBuilder.newBuilder().maximumSize(MAX_PATTERNS)
+    .build<String, Pattern>()
+
+  /**
+   * Returns the compiled pattern for the regular expression. Invalid expressions throw a PatternSyntaxException and
+   * are not cached.
+   */
+  @JvmStatic
+  fun compile(regex: String): Pattern {
+    val cached = patterns.getIfPresent(regex)
+    return if (cached != null) {
+      cached
+    } else {
+      val pattern = Pattern.compile(regex)
+      patterns.put(regex, pattern)
+      pattern
+    }
+  }
+
+  /**
+   * If the whole value matches the regular expression
+   */
+  @JvmStatic
+  fun matches(regex: String, value: String) = compile(regex).matcher(value).matches()
+}
@@ -7,6 +7,12 @@ import au.com.dius.pact.model.{BodyMismatch, HttpPart}
 trait BodyMatcher {
   def matchBody(expected: HttpPart, actual: HttpPart, allowUnexpectedKeys: Boolean) : List[BodyMismatch]
 
+  /**
+    * If the bodies match. Matchers can override this to stop at the first mismatch, as the mismatches are not needed
+    */
+  def bodyMatches(expected: HttpPart, actual: HttpPart, allowUnexpectedKeys: Boolean): Boolean =
+    matchBody(expected, actual, allowUnexpectedKeys).isEmpty
+
   def toScalaOption(body: Optional[String]) = {
     if (body.isPresent) Some(body.get)
     else None
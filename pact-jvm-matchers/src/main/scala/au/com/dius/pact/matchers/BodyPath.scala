@@ -0,0 +1,32 @@
+package au.com.dius.pact.matchers
+
+/**
+  * Persistent path to a node in a body. Each path links to its parent, so extending a path to a child node is a
+  * single allocation, and the sequence of path elements and the string form are only built when they are needed.
+  */
+final class BodyPath private (val parent: BodyPath, val name: String, val length: Int) {
+
+  def :+(child: String): BodyPath = new BodyPath(this, child, length + 1)
+
+  lazy val elements: IndexedSeq[String] = {
+    val result = new Array[String](length)
+    var node = this
+    var i = length - 1
+    while (i >= 0) {
+      result(i) = node.name
+      node = node.parent
+      i -= 1
+    }
+    result
+  }
+
+  override def toString: String = elements.mkString(".")
+}
+
+object BodyPath {
+  private val Empty = new BodyPath(null, null, 0)
+
+  val Root: BodyPath = Empty :+ "$"
+
+  def apply(path: Seq[String]): BodyPath = path.foldLeft(Empty)(_ :+ _)
+}
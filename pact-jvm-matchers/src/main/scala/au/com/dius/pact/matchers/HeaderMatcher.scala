@@ -38,7 +38,7 @@ object HeaderMatcher extends StrictLogging {
   def compareHeader(headerKey: String, expected: String, actual: String, matchers: MatchingRules) = {
     logger.debug(s"Comparing header '$headerKey': '$actual' to '$expected'")
 
-    def stripWhiteSpaceAfterCommas(in: String): String = in.replaceAll(",[ ]*", ",")
+    def stripWhiteSpaceAfterCommas(in: String): String = PatternCache.compile(",[ ]*").matcher(in).replaceAll(",")
 
     if (Matchers.matcherDefined("header", Seq(headerKey), matchers)) {
       Matchers.domatch[HeaderMismatch](matchers, "header", Seq(headerKey), expected, actual, HeaderMismatchFactory).headOption
@@ -5,9 +5,79 @@ import au.com.dius.pact.model._
 import au.com.dius.pact.model.matchingrules.MatchingRules
 import com.typesafe.scalalogging.StrictLogging
 
+import scala.collection.mutable
+import scala.util.control.ControlThrowable
+
+object JsonBodyMatcher {
+
+  /**
+    * Thrown by a fail fast context when the first mismatch is found, to stop the rest of the comparison
+    */
+  private[matchers] object FirstMismatchFound extends ControlThrowable
+
+  /**
+    * State threaded through the comparison of a body, collecting the mismatches as they are found. A fail fast context
+    * stops the comparison at the first mismatch, for when only the result of the match is needed
+    */
+  private[matchers] class MatchContext(val matchers: MatchingRules, val allowUnexpectedKeys: Boolean,
+                                       val failFast: Boolean = false) {
+    val mismatches = mutable.ListBuffer[BodyMismatch]()
+
+    private val hasBodyRules = matchers != null && matchers.hasCategory("body") &&
+      !matchers.rulesForCategory("body").getMatchingRules.isEmpty
+
+    def matcherDefined(path: BodyPath): Boolean =
+      hasBodyRules && Matchers.matcherDefined("body", path.elements, matchers)
+
+    def wildcardMatcherDefined(path: BodyPath): Boolean =
+      hasBodyRules && Matchers.wildcardMatcherDefined(path.elements, "body", matchers)
+
+    def domatch(path: BodyPath, expected: Any, actual: Any): Unit =
+      addMismatches(Matchers.domatch[BodyMismatch](matchers, "body", path.elements, expected, actual,
+        BodyMismatchFactory))
+
+    def addMismatch(mismatch: BodyMismatch): Unit = insertMismatch(mismatches.size, mismatch)
+
+    def insertMismatch(index: Int, mismatch: BodyMismatch): Unit = {
+      mismatches.insert(index, mismatch)
+      if (failFast) throw FirstMismatchFound
+    }
+
+    def addMismatches(found: Seq[BodyMismatch]): Unit = {
+      mismatches ++= found
+      if (failFast && found.nonEmpty) throw FirstMismatchFound
+    }
+
+    /**
+      * A new context for the same comparison, without the mismatches found so far
+      */
+    def restart: MatchContext = new MatchContext(matchers, allowUnexpectedKeys, failFast)
+
+    /**
+      * If the comparison finds no mismatches, stopping at the first one for a fail fast context
+      */
+    def matches(comparison: => Seq[BodyMismatch]): Boolean = {
+      try {
+        comparison.isEmpty
+      } catch {
+        case FirstMismatchFound => false
+      }
+    }
+  }
+}
+
 class JsonBodyMatcher extends BodyMatcher with StrictLogging {
+  import JsonBodyMatcher.MatchContext
+
+  def matchBody(expected: HttpPart, actual: HttpPart, allowUnexpectedKeys: Boolean): List[BodyMismatch] =
+    matchBody(expected, actual, new MatchContext(expected.getMatchingRules, allowUnexpectedKeys))
 
-  def matchBody(expected: HttpPart, actual: HttpPart, allowUnexpectedKeys: Boolean): List[BodyMismatch] = {
+  override def bodyMatches(expected: HttpPart, actual: HttpPart, allowUnexpectedKeys: Boolean): Boolean = {
+    val context = new MatchContext(expected.getMatchingRules, allowUnexpectedKeys, failFast = true)
+    context.matches(matchBody(expected, actual, context))
+  }
+
+  private[matchers] def matchBody(expected: HttpPart, actual: HttpPart, context: MatchContext): List[BodyMismatch] = {
     (expected.getBody.getState, actual.getBody.getState) match {
       case (OptionalBody.State.MISSING, _) => List()
       case (OptionalBody.State.NULL, OptionalBody.State.PRESENT) => List(BodyMismatch(None, actual.getBody.getValue,
@@ -15,8 +85,10 @@ class JsonBodyMatcher extends BodyMatcher with StrictLogging {
       case (OptionalBody.State.NULL, _) => List()
       case (_, OptionalBody.State.MISSING) => List(BodyMismatch(expected.getBody.getValue, None,
         Some(s"Expected body '${expected.getBody.getValue}' but was missing")))
-      case (_, _) => compare(Seq("$"), JsonUtils.parseJsonString(expected.getBody.getValue),
-        JsonUtils.parseJsonString(actual.getBody.getValue), allowUnexpectedKeys, expected.getMatchingRules)
+      case (_, _) =>
+        compare(BodyPath.Root, JsonUtils.parseJsonString(expected.getBody.getValue),
+          JsonUtils.parseJsonString(actual.getBody.getValue), context)
+        context.mismatches.toList
     }
   }
 
@@ -43,115 +115,118 @@ class JsonBodyMatcher extends BodyMatcher with StrictLogging {
 
   def compare(path: Seq[String], expected: Any, actual: Any, allowUnexpectedKeys: Boolean,
               matchers: MatchingRules): List[BodyMismatch] = {
+    val context = new MatchContext(matchers, allowUnexpectedKeys)
+    compare(BodyPath(path), expected, actual, context)
+    context.mismatches.toList
+  }
+
+  private[matchers] def compare(path: BodyPath, expected: Any, actual: Any, context: MatchContext): Unit = {
     (expected, actual) match {
-      case (a: Map[String, Any], b: Map[String, Any]) => compareMaps(a, b, a, b, path, allowUnexpectedKeys, matchers)
-      case (a: List[Any], b: List[Any]) => compareLists(a, b, a, b, path, allowUnexpectedKeys, matchers)
+      case (a: Map[String, Any], b: Map[String, Any]) => compareMaps(a, b, path, context)
+      case (a: List[Any], b: List[Any]) => compareLists(a, b, path, context)
       case (_, _) =>
         if ((expected.isInstanceOf[Map[String, Any]] && !actual.isInstanceOf[Map[String, Any]]) ||
           (expected.isInstanceOf[List[Any]] && !actual.isInstanceOf[List[Any]])) {
-          List(BodyMismatch(expected, actual,
+          context.addMismatch(BodyMismatch(expected, actual,
             Some(s"Type mismatch: Expected ${typeOf(expected)} ${valueOf(expected)} but received ${typeOf(actual)} ${valueOf(actual)}"),
-            path.mkString("."), generateObjectDiff(expected, actual)))
+            path.toString, generateObjectDiff(expected, actual)))
         } else {
-          compareValues(path, expected, actual, matchers)
+          compareValues(path, expected, actual, context)
         }
     }
   }
 
-  private def generateObjectDiff(expected: Any, actual: Any) = {
-    Some(DiffUtilsKt.generateObjectDiff(JsonUtils.scalaObjectGraphToJavaObjectGraph(expected),
+  private[matchers] def generateObjectDiff(expected: Any, actual: Any) = {
+    LazyDiff(DiffUtilsKt.generateObjectDiff(JsonUtils.scalaObjectGraphToJavaObjectGraph(expected),
       JsonUtils.scalaObjectGraphToJavaObjectGraph(actual)))
   }
 
-  def compareListContent(expectedValues: List[Any], actualValues: List[Any], path: Seq[String],
-                         allowUnexpectedKeys: Boolean, matchers: MatchingRules) = {
-    var result = List[BodyMismatch]()
-    for ((value, index) <- expectedValues.view.zipWithIndex) {
-      if (index < actualValues.size) {
-        result = result ++: compare(path :+ index.toString, value, actualValues(index), allowUnexpectedKeys, matchers)
-      } else if (!Matchers.matcherDefined("body", path, matchers)) {
-        result = result :+ BodyMismatch(expectedValues, actualValues, Some(s"Expected ${valueOf(value)} but was missing"),
-          path.mkString("."), generateObjectDiff(expectedValues, actualValues))
-      }
-    }
-    result
-  }
-
-  def compareLists(expectedValues: List[Any], actualValues: List[Any], a: Any, b: Any, path: Seq[String],
-                   allowUnexpectedKeys: Boolean, matchers: MatchingRules): List[BodyMismatch] = {
-    if (Matchers.matcherDefined("body", path, matchers)) {
-      logger.debug("compareLists: Matcher defined for path " + path)
-      var result = Matchers.domatch[BodyMismatch](matchers, "body", path, expectedValues, actualValues, BodyMismatchFactory)
+  private[matchers] def compareLists(expectedValues: List[Any], actualValues: List[Any], path: BodyPath,
+                           context: MatchContext): Unit = {
+    val diff = generateObjectDiff(expectedValues, actualValues)
+    if (context.matcherDefined(path)) {
+      logger.debug(s"compareLists: Matcher defined for path $path")
+      context.domatch(path, expectedValues, actualValues)
       if (expectedValues.nonEmpty) {
-        result = result ++ compareListContent(expectedValues.padTo(actualValues.length, expectedValues.head),
-          actualValues, path, allowUnexpectedKeys, matchers)
+        // actual items past the end of the expected list are compared to the first expected item
+        val expectedItems = expectedValues.iterator
+        var index = 0
+        actualValues.foreach { value =>
+          val expectedValue = if (expectedItems.hasNext) expectedItems.next() else expectedValues.head
+          compare(path :+ index.toString, expectedValue, value, context)
+          index += 1
+        }
       }
-      result
+    } else if (expectedValues.isEmpty && actualValues.nonEmpty) {
+      context.addMismatch(BodyMismatch(expectedValues, actualValues,
+        Some(s"Expected an empty List but received ${valueOf(actualValues)}"), path.toString, diff))
     } else {
-      if (expectedValues.isEmpty && actualValues.nonEmpty) {
-        List(BodyMismatch(a, b, Some(s"Expected an empty List but received ${valueOf(actualValues)}"),
-          path.mkString("."), generateObjectDiff(expectedValues, actualValues)))
-      } else {
-        var result = compareListContent(expectedValues, actualValues, path, allowUnexpectedKeys, matchers)
-        if (expectedValues.size != actualValues.size) {
-          result = result :+ BodyMismatch(a, b,
-            Some(s"Expected a List with ${expectedValues.size} elements but received ${actualValues.size} elements"),
-            path.mkString("."), generateObjectDiff(expectedValues, actualValues))
+      val actualItems = actualValues.iterator
+      var index = 0
+      expectedValues.foreach { value =>
+        if (actualItems.hasNext) {
+          compare(path :+ index.toString, value, actualItems.next(), context)
+        } else {
+          context.addMismatch(BodyMismatch(expectedValues, actualValues,
+            Some(s"Expected ${valueOf(value)} but was missing"), path.toString, diff))
         }
-        result
+        index += 1
+      }
+      val actualSize = index + actualItems.size
+      if (index != actualSize) {
+        context.addMismatch(BodyMismatch(expectedValues, actualValues,
+          Some(s"Expected a List with $index elements but received $actualSize elements"), path.toString, diff))
       }
     }
   }
 
-  def compareMaps(expectedValues: Map[String, Any], actualValues: Map[String, Any], a: Any, b: Any, path: Seq[String],
-                  allowUnexpectedKeys: Boolean, matchers: MatchingRules): List[BodyMismatch] = {
+  private[matchers] def compareMaps(expectedValues: Map[String, Any], actualValues: Map[String, Any], path: BodyPath,
+                          context: MatchContext): Unit = {
+    val diff = generateObjectDiff(expectedValues, actualValues)
     if (expectedValues.isEmpty && actualValues.nonEmpty) {
-      List(BodyMismatch(a, b, Some(s"Expected an empty Map but received ${valueOf(actualValues)}"), path.mkString("."),
-        generateObjectDiff(expectedValues, actualValues)))
+      context.addMismatch(BodyMismatch(expectedValues, actualValues,
+        Some(s"Expected an empty Map but received ${valueOf(actualValues)}"), path.toString, diff))
     } else {
-      var result = List[BodyMismatch]()
-      if (allowUnexpectedKeys && expectedValues.size > actualValues.size) {
-        result = result :+ BodyMismatch(a, b,
+      if (context.allowUnexpectedKeys && expectedValues.size > actualValues.size) {
+        context.addMismatch(BodyMismatch(expectedValues, actualValues,
           Some(s"Expected a Map with at least ${expectedValues.size} elements but received ${actualValues.size} elements"),
-          path.mkString("."), generateObjectDiff(expectedValues, actualValues))
-      } else if (!allowUnexpectedKeys && expectedValues.size != actualValues.size) {
-        result = result :+ BodyMismatch(a, b,
+          path.toString, diff))
+      } else if (!context.allowUnexpectedKeys && expectedValues.size != actualValues.size) {
+        context.addMismatch(BodyMismatch(expectedValues, actualValues,
           Some(s"Expected a Map with ${expectedValues.size} elements but received ${actualValues.size} elements"),
-          path.mkString("."), generateObjectDiff(expectedValues, actualValues))
+          path.toString, diff))
       }
-      if (Matchers.wildcardMatcherDefined(path :+ "any", "body", matchers)) {
-        actualValues.foreach(entry => {
-          if (expectedValues.contains(entry._1)) {
-            result = result ++: compare(path :+ entry._1, expectedValues.apply(entry._1), entry._2, allowUnexpectedKeys, matchers)
-          } else if (!allowUnexpectedKeys) {
-            result = result ++: compare(path :+ entry._1, expectedValues.values.head, entry._2, allowUnexpectedKeys, matchers)
+      if (context.wildcardMatcherDefined(path :+ "any")) {
+        actualValues.foreach { case (key, value) =>
+          expectedValues.get(key) match {
+            case Some(expectedValue) => compare(path :+ key, expectedValue, value, context)
+            case None if !context.allowUnexpectedKeys =>
+              compare(path :+ key, expectedValues.values.head, value, context)
+            case None =>
           }
-        })
+        }
       } else {
-        expectedValues.foreach(entry => {
-          if (actualValues.contains(entry._1)) {
-            result = result ++: compare(path :+ entry._1, entry._2, actualValues(entry._1), allowUnexpectedKeys, matchers)
-          } else {
-            result = result :+ BodyMismatch(a, b, Some(s"Expected ${entry._1}=${valueOf(entry._2)} but was missing"),
-              path.mkString("."), generateObjectDiff(expectedValues, actualValues))
+        expectedValues.foreach { case (key, value) =>
+          actualValues.get(key) match {
+            case Some(actualValue) => compare(path :+ key, value, actualValue, context)
+            case None =>
+              context.addMismatch(BodyMismatch(expectedValues, actualValues,
+                Some(s"Expected $key=${valueOf(value)} but was missing"), path.toString, diff))
           }
-        })
+        }
       }
-      result
     }
   }
 
-  def compareValues(path: Seq[String], expected: Any, actual: Any, matchers: MatchingRules): List[BodyMismatch] = {
-    if (Matchers.matcherDefined("body", path, matchers)) {
-      logger.debug("compareValues: Matcher defined for path " + path)
-      Matchers.domatch[BodyMismatch](matchers, "body", path, expected, actual, BodyMismatchFactory)
+  private[matchers] def compareValues(path: BodyPath, expected: Any, actual: Any, context: MatchContext): Unit = {
+    if (context.matcherDefined(path)) {
+      logger.debug(s"compareValues: Matcher defined for path $path")
+      context.domatch(path, expected, actual)
     } else {
-      logger.debug("compareValues: No matcher defined for path " + path + ", using equality")
-      if (expected == actual) {
-        List[BodyMismatch]()
-      } else {
-        List(BodyMismatch(expected, actual, Some(s"Expected ${valueOf(expected)} but received ${valueOf(actual)}"),
-          path.mkString("."), None))
+      logger.debug(s"compareValues: No matcher defined for path $path, using equality")
+      if (expected != actual) {
+        context.addMismatch(BodyMismatch(expected, actual,
+          Some(s"Expected ${valueOf(expected)} but received ${valueOf(actual)}"), path.toString))
       }
     }
   }
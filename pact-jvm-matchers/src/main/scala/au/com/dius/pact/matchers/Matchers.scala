@@ -1,6 +1,6 @@
 package au.com.dius.pact.matchers
 
-import java.util.function.{Predicate, ToIntFunction}
+import java.util.function.Predicate
 
 import au.com.dius.pact.model.matchingrules.{MatchingRule, MatchingRules}
 import com.typesafe.scalalogging.StrictLogging
@@ -14,8 +14,8 @@ object Matchers extends StrictLogging {
   def matchesToken(pathElement: String, token: PathToken) = token match {
     case RootNode => if (pathElement == "$") 2 else 0
     case Field(name) => if (pathElement == name) 2 else 0
-    case ArrayRandomAccess(indices) => if (pathElement.matches("\\d+") && indices.contains(pathElement.toInt)) 2 else 0
-    case ArraySlice(None, None, 1) => if (pathElement.matches("\\d+")) 1 else 0
+    case ArrayRandomAccess(indices) => if (PatternCache.matches("\\d+", pathElement) && indices.contains(pathElement.toInt)) 2 else 0
+    case ArraySlice(None, None, 1) => if (PatternCache.matches("\\d+", pathElement)) 1 else 0
     case AnyField => 1
     case _ => 0
   }
@@ -46,10 +46,12 @@ object Matchers extends StrictLogging {
   }
 
   def resolveMatchers(matchers: MatchingRules, category: String, items: Seq[String]) =
-    if (category == "body")
+    if (category == "body") {
+      val resolved = PathExpressionIndex.forCategory(matchers.rulesForCategory(category)).resolvedKeys(items)
       matchers.rulesForCategory(category).filter(new Predicate[String] {
-        override def test(p: String): Boolean = matchesPath(p, items) > 0
+        override def test(p: String): Boolean = resolved.contains(p)
       })
+    }
     else if (category == "header" || category == "query")
       matchers.rulesForCategory(category).filter(new Predicate[String] {
         override def test(p: String): Boolean = items == Seq(p)
@@ -57,18 +59,17 @@ object Matchers extends StrictLogging {
     else matchers.rulesForCategory(category)
 
   def matcherDefined(category: String, path: Seq[String], matchers: MatchingRules): Boolean =
-    if (matchers != null)
-      resolveMatchers(matchers, category, path).isNotEmpty
-    else
+    if (matchers == null)
       false
+    else if (category == "body")
+      PathExpressionIndex.forCategory(matchers.rulesForCategory(category)).matcherDefined(path)
+    else
+      resolveMatchers(matchers, category, path).isNotEmpty
 
   def wildcardMatcherDefined(path: Seq[String], category: String, matchers: MatchingRules): Boolean = {
-    if (matchers != null) {
-      val resolvedMatchers = matchers.rulesForCategory(category).filter(new Predicate[String] {
-        override def test(p: String): Boolean = matchesPath(p, path) == path.length
-      })
-      asScalaSet(resolvedMatchers.getMatchingRules.keySet()).exists(entry => entry.endsWith(".*"))
-    } else
+    if (matchers != null)
+      PathExpressionIndex.forCategory(matchers.rulesForCategory(category)).wildcardMatcherDefined(path)
+    else
       false
   }
 
@@ -79,12 +80,9 @@ object Matchers extends StrictLogging {
   }
 
   def selectBestMatcher[Mismatch](matchers: MatchingRules, category: String, path: Seq[String]) = {
-    val matcherCategory = resolveMatchers(matchers, category, path)
     if (category == "body")
-      matcherCategory.maxBy(new ToIntFunction[String] {
-        override def applyAsInt(value: String): Int = calculatePathWeight(value, path)
-      })
+      PathExpressionIndex.forCategory(matchers.rulesForCategory(category)).selectBestMatcher(path)
     else
-      matcherCategory.getMatchingRules.iterator.next()._2
+      resolveMatchers(matchers, category, path).getMatchingRules.iterator.next()._2
   }
 }
@@ -1,17 +1,52 @@
 package au.com.dius.pact.matchers
 
+import com.google.common.cache.{Cache, CacheBuilder}
+
 import scala.collection.mutable
 
 object MatchingConfig {
+  val StreamingJsonProperty = "pact.matching.streamingJson"
+
   var bodyMatchers = mutable.HashMap[String, BodyMatcher](
     "application/.*xml" -> new XmlBodyMatcher(),
-    "application/.*json" -> new JsonBodyMatcher(),
-    "application/json-rpc" -> new JsonBodyMatcher(),
-    "application/jsonrequest" -> new JsonBodyMatcher(),
+    "application/.*json" -> jsonBodyMatcher,
+    "application/json-rpc" -> jsonBodyMatcher,
+    "application/jsonrequest" -> jsonBodyMatcher,
     "text/plain" -> new PlainTextBodyMatcher()
   )
 
+  /**
+    * The streaming JSON body matcher is used for JSON bodies when the pact.matching.streamingJson system property
+    * is set to true
+    */
+  private def jsonBodyMatcher: BodyMatcher =
+    if (java.lang.Boolean.getBoolean(StreamingJsonProperty)) new StreamingJsonBodyMatcher() else new JsonBodyMatcher()
+
+  private val MaxResolvedMimeTypes = 500L
+
+  // mime type -> body matcher resolutions, cleared when any entry of the body matchers is added, removed or replaced
+  private val resolvedBodyMatchers: Cache[String, Option[(String, BodyMatcher)]] =
+    CacheBuilder.newBuilder().maximumSize(MaxResolvedMimeTypes).build[String, Option[(String, BodyMatcher)]]()
+  // snapshot of the body matchers the cached resolutions were made from
+  @volatile private var resolvedFrom: Map[String, BodyMatcher] = bodyMatchers.toMap
+
   def lookupBodyMatcher(mimeType: String): Option[(String, BodyMatcher)] = {
-    bodyMatchers.find(entry => mimeType.matches(entry._1))
+    val current = bodyMatchers
+    if (!sameBodyMatchers(resolvedFrom, current)) {
+      resolvedBodyMatchers.invalidateAll()
+      resolvedFrom = current.toMap
+    }
+
+    val resolved = resolvedBodyMatchers.getIfPresent(mimeType)
+    if (resolved != null) {
+      resolved
+    } else {
+      val result = current.find(entry => PatternCache.matches(entry._1, mimeType))
+      resolvedBodyMatchers.put(mimeType, result)
+      result
+    }
   }
+
+  private def sameBodyMatchers(snapshot: Map[String, BodyMatcher], current: mutable.Map[String, BodyMatcher]) =
+    snapshot.size == current.size && snapshot.forall { case (key, matcher) => current.get(key).exists(_ eq matcher) }
 }
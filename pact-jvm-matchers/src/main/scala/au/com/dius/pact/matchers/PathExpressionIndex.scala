@@ -0,0 +1,164 @@
+package au.com.dius.pact.matchers
+
+import au.com.dius.pact.model.matchingrules.{Category, MatchingRuleGroup}
+import com.google.common.cache.{Cache, CacheBuilder}
+import com.typesafe.scalalogging.StrictLogging
+import io.gatling.jsonpath.AST._
+import io.gatling.jsonpath.Parser
+
+import scala.collection.JavaConversions._
+import scala.collection.mutable
+import scala.util.Try
+
+/**
+  * Compiled form of the path expressions of a matching rule category. Each expression is parsed once and added to a
+  * trie keyed by path token, so resolving the rules that apply to a path is a walk down the trie instead of parsing
+  * and testing every expression at every node of a body.
+  */
+class PathExpressionIndex private (rules: java.util.Map[String, MatchingRuleGroup], size: Int,
+                                   modificationCount: Int, root: PathExpressionIndex.Node) {
+  import PathExpressionIndex._
+
+  /**
+    * If this index still reflects the rules of the category. Any change made to the rules through the category makes
+    * the index stale, as does replacing the map of rules or changing its size directly. This is checked on every
+    * lookup, so it does not look at the path expressions themselves
+    */
+  def isCurrentFor(category: Category): Boolean = category.getModificationCount == modificationCount &&
+    (category.getMatchingRules eq rules) && rules.size == size
+
+  /**
+    * Returns the path expressions that apply to the path, either directly or from a parent of the path
+    */
+  def resolve(path: Seq[String]): Seq[ResolvedPath] = {
+    val found = mutable.ArrayBuffer[ResolvedPath]()
+    val elements = path match {
+      case p: IndexedSeq[String @unchecked] => p
+      case _ => path.toIndexedSeq
+    }
+    walk(root, elements, 0, 1, found)
+    found
+  }
+
+  def resolvedKeys(path: Seq[String]): Set[String] = resolve(path).map(_.key).toSet
+
+  def matcherDefined(path: Seq[String]): Boolean = resolve(path).exists(r => !groupFor(r.key).getRules.isEmpty)
+
+  def wildcardMatcherDefined(path: Seq[String]): Boolean = {
+    if (path.isEmpty) rules.keySet.exists(_.endsWith(".*"))
+    else resolve(path).exists(r => r.depth == path.length && r.key.endsWith(".*"))
+  }
+
+  /**
+    * Selects the rules with the highest path weight, taking the first defined rule if the weights are equal
+    */
+  def selectBestMatcher(path: Seq[String]): MatchingRuleGroup = {
+    val resolved = resolve(path)
+    if (resolved.isEmpty) new MatchingRuleGroup()
+    else groupFor(resolved.reduceLeft((a, b) =>
+      if (b.weight > a.weight || (b.weight == a.weight && b.ordinal < a.ordinal)) b else a).key)
+  }
+
+  private def groupFor(key: String) = {
+    val group = rules.get(key)
+    if (group != null) group else new MatchingRuleGroup()
+  }
+
+  private def walk(node: Node, path: IndexedSeq[String], depth: Int, weight: Int,
+                   found: mutable.ArrayBuffer[ResolvedPath]): Unit = {
+    node.terminals.foreach(t => found += ResolvedPath(t.key, t.ordinal, depth, weight))
+    if (depth < path.length) {
+      val element = path(depth)
+      node.fields.get(element).foreach(walk(_, path, depth + 1, weight * 2, found))
+      if (node.anyField != null) walk(node.anyField, path, depth + 1, weight, found)
+      if (isIndex(element)) {
+        if (node.indices.nonEmpty) {
+          Try(element.toInt).toOption.flatMap(node.indices.get).foreach(walk(_, path, depth + 1, weight * 2, found))
+        }
+        if (node.anyIndex != null) walk(node.anyIndex, path, depth + 1, weight, found)
+      }
+    }
+  }
+}
+
+object PathExpressionIndex extends StrictLogging {
+
+  /**
+    * A path expression that applies to a path. Depth is the number of path elements the expression matched, and
+    * weight is the product of the token weights (2 for an exact match, 1 for a wildcard)
+    */
+  case class ResolvedPath(key: String, ordinal: Int, depth: Int, weight: Int)
+
+  private[matchers] case class Terminal(key: String, ordinal: Int)
+
+  private[matchers] class Node {
+    val fields = mutable.HashMap[String, Node]()
+    val indices = mutable.HashMap[Int, Node]()
+    var anyField: Node = _
+    var anyIndex: Node = _
+    val terminals = mutable.ArrayBuffer[Terminal]()
+
+    def field(name: String): Node = fields.getOrElseUpdate(name, new Node)
+
+    def index(i: Int): Node = indices.getOrElseUpdate(i, new Node)
+
+    def wildcardField: Node = {
+      if (anyField == null) anyField = new Node
+      anyField
+    }
+
+    def wildcardIndex: Node = {
+      if (anyIndex == null) anyIndex = new Node
+      anyIndex
+    }
+  }
+
+  private val cache: Cache[Category, PathExpressionIndex] = CacheBuilder.newBuilder().weakKeys()
+    .build[Category, PathExpressionIndex]()
+
+  /**
+    * Returns the compiled index for the category, compiling it the first time the category is used or after its
+    * path expressions have changed
+    */
+  def forCategory(category: Category): PathExpressionIndex = {
+    val cached = cache.getIfPresent(category)
+    if (cached != null && cached.isCurrentFor(category)) {
+      cached
+    } else {
+      val index = compile(category)
+      cache.put(category, index)
+      index
+    }
+  }
+
+  def compile(category: Category): PathExpressionIndex = {
+    val modificationCount = category.getModificationCount
+    val rules = category.getMatchingRules
+    val root = new Node
+    rules.keySet.toList.zipWithIndex.foreach { case (key, ordinal) =>
+      parse(key).foreach(tokens => if (tokens.nonEmpty) insert(root, tokens, Terminal(key, ordinal)))
+    }
+    new PathExpressionIndex(rules, rules.size, modificationCount, root)
+  }
+
+  def parse(pathExp: String): Option[List[PathToken]] = new Parser().compile(pathExp) match {
+    case Parser.Success(q, _) => Some(q)
+    case ns: Parser.NoSuccess =>
+      logger.warn(s"Path expression $pathExp is invalid, ignoring: $ns")
+      None
+  }
+
+  private def insert(node: Node, tokens: List[PathToken], terminal: Terminal): Unit = tokens match {
+    case Nil => node.terminals += terminal
+    case token :: rest => token match {
+      case RootNode => insert(node.field("$"), rest, terminal)
+      case Field(name) => insert(node.field(name), rest, terminal)
+      case ArrayRandomAccess(indices) => indices.distinct.foreach(i => insert(node.index(i), rest, terminal))
+      case ArraySlice(None, None, 1) => insert(node.wildcardIndex, rest, terminal)
+      case AnyField => insert(node.wildcardField, rest, terminal)
+      case _ => logger.debug(s"Path expression ${terminal.key} contains $token which never matches a path, ignoring")
+    }
+  }
+
+  private def isIndex(element: String) = element.nonEmpty && element.forall(c => c >= '0' && c <= '9')
+}
@@ -34,7 +34,7 @@ class PlainTextBodyMatcher extends BodyMatcher with StrictLogging {
         Some(s"Expected body '${expected}' to match '${actual}' using equality but did not match")))
     }
 
-    if(actual.matches(regex.getRules.get(0).asInstanceOf[RegexMatcher].getRegex)) {
+    if(PatternCache.matches(regex.getRules.get(0).asInstanceOf[RegexMatcher].getRegex, actual)) {
       return List()
     }
 
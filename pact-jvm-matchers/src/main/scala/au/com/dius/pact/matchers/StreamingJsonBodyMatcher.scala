@@ -0,0 +1,220 @@
+package au.com.dius.pact.matchers
+
+import au.com.dius.pact.matchers.JsonBodyMatcher.MatchContext
+import au.com.dius.pact.matchers.util.JsonUtils
+import au.com.dius.pact.model._
+import com.fasterxml.jackson.core.{JsonFactory, JsonParseException, JsonParser, JsonProcessingException, JsonToken}
+import com.google.common.cache.{Cache, CacheBuilder}
+import com.typesafe.scalalogging.StrictLogging
+
+import scala.collection.mutable
+
+/**
+  * JSON body matcher that reads the actual body as a stream of tokens instead of parsing it into an object graph. The
+  * expected body is parsed once per body and compared against the tokens as they are read, so keys that are not
+  * expected are skipped without being built. Parts of the actual body are only built when they are needed, i.e. for
+  * lists that have a matcher defined, type mismatches and the values reported in a mismatch.
+  *
+  * Returns the same mismatches as the JsonBodyMatcher, except that the mismatches for the entries of a map are in the
+  * order of the keys in the actual body. Bodies the token stream can not read are handed to the JsonBodyMatcher.
+  */
+class StreamingJsonBodyMatcher extends BodyMatcher with StrictLogging {
+  import StreamingJsonBodyMatcher._
+
+  private val treeMatcher = new JsonBodyMatcher()
+
+  def matchBody(expected: HttpPart, actual: HttpPart, allowUnexpectedKeys: Boolean): List[BodyMismatch] =
+    matchBody(expected, actual, new MatchContext(expected.getMatchingRules, allowUnexpectedKeys))
+
+  override def bodyMatches(expected: HttpPart, actual: HttpPart, allowUnexpectedKeys: Boolean): Boolean = {
+    val context = new MatchContext(expected.getMatchingRules, allowUnexpectedKeys, failFast = true)
+    context.matches(matchBody(expected, actual, context))
+  }
+
+  private def matchBody(expected: HttpPart, actual: HttpPart, context: MatchContext): List[BodyMismatch] = {
+    (expected.getBody.getState, actual.getBody.getState) match {
+      case (OptionalBody.State.PRESENT, OptionalBody.State.PRESENT)
+        if expected.getBody.getValue.trim.nonEmpty && actual.getBody.getValue.trim.nonEmpty =>
+        try {
+          matchStream(expectedValue(expected.getBody), actual.getBody.getValue, context)
+          context.mismatches.toList
+        } catch {
+          case e: JsonProcessingException =>
+            logger.debug("Could not read the actual body as a stream of JSON tokens, using the JSON body matcher", e)
+            treeMatcher.matchBody(expected, actual, context.restart)
+        }
+      case _ => treeMatcher.matchBody(expected, actual, context)
+    }
+  }
+
+  private def matchStream(expected: Any, body: String, context: MatchContext): Unit = {
+    val parser = jsonFactory.createParser(body)
+    try {
+      parser.nextToken()
+      new StreamComparison(body, parser, context).compare(BodyPath.Root, expected)
+      if (parser.nextToken() != null) {
+        throw new JsonParseException(parser, "Unexpected content after the end of the body")
+      }
+    } finally {
+      parser.close()
+    }
+  }
+
+  /**
+    * Compares expected values to the values read from the parser, starting with the value of the current token.
+    * Each compare leaves the parser on the last token of the value it compared.
+    */
+  private class StreamComparison(body: String, parser: JsonParser, context: MatchContext) {
+
+    def compare(path: BodyPath, expected: Any): Unit = {
+      expected match {
+        case expectedMap: Map[String, Any] if parser.getCurrentToken == JsonToken.START_OBJECT =>
+          compareMap(path, expectedMap)
+        case expectedList: List[Any] if parser.getCurrentToken == JsonToken.START_ARRAY &&
+          !context.matcherDefined(path) => compareList(path, expectedList)
+        case _ => treeMatcher.compare(path, expected, readValue(), context)
+      }
+    }
+
+    private def compareList(path: BodyPath, expected: List[Any]): Unit = {
+      val start = parser.getTokenLocation.getCharOffset
+      if (expected.isEmpty) {
+        if (parser.nextToken() != JsonToken.END_ARRAY) {
+          skipRest()
+          val actual = readSlice(start)
+          context.addMismatch(BodyMismatch(expected, actual,
+            Some(s"Expected an empty List but received ${treeMatcher.valueOf(actual)}"), path.toString,
+            treeMatcher.generateObjectDiff(expected, actual)))
+        }
+      } else {
+        val expectedItems = expected.iterator
+        var index = 0
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+          if (expectedItems.hasNext) {
+            compare(path :+ index.toString, expectedItems.next())
+          } else {
+            parser.skipChildren()
+          }
+          index += 1
+        }
+        if (index != expected.size) {
+          val actual = readSlice(start)
+          val diff = treeMatcher.generateObjectDiff(expected, actual)
+          expectedItems.foreach { value =>
+            context.addMismatch(BodyMismatch(expected, actual,
+              Some(s"Expected ${treeMatcher.valueOf(value)} but was missing"), path.toString, diff))
+          }
+          context.addMismatch(BodyMismatch(expected, actual,
+            Some(s"Expected a List with ${expected.size} elements but received $index elements"),
+            path.toString, diff))
+        }
+      }
+    }
+
+    private def compareMap(path: BodyPath, expected: Map[String, Any]): Unit = {
+      val start = parser.getTokenLocation.getCharOffset
+      if (expected.isEmpty) {
+        if (parser.nextToken() != JsonToken.END_OBJECT) {
+          skipRest()
+          val actual = readSlice(start)
+          context.addMismatch(BodyMismatch(expected, actual,
+            Some(s"Expected an empty Map but received ${treeMatcher.valueOf(actual)}"), path.toString,
+            treeMatcher.generateObjectDiff(expected, actual)))
+        }
+      } else {
+        // the size mismatch is reported before the mismatches of the entries, as the JsonBodyMatcher does
+        val insertAt = context.mismatches.size
+        val wildcard = context.wildcardMatcherDefined(path :+ "any")
+        val keys = mutable.HashSet[String]()
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+          val key = parser.getCurrentName
+          keys += key
+          parser.nextToken()
+          expected.get(key) match {
+            case Some(expectedValue) => compare(path :+ key, expectedValue)
+            case None if wildcard && !context.allowUnexpectedKeys => compare(path :+ key, expected.values.head)
+            case None => parser.skipChildren()
+          }
+        }
+
+        lazy val actual = readSlice(start)
+        lazy val diff = treeMatcher.generateObjectDiff(expected, actual)
+        if (context.allowUnexpectedKeys && expected.size > keys.size) {
+          context.insertMismatch(insertAt, BodyMismatch(expected, actual,
+            Some(s"Expected a Map with at least ${expected.size} elements but received ${keys.size} elements"),
+            path.toString, diff))
+        } else if (!context.allowUnexpectedKeys && expected.size != keys.size) {
+          context.insertMismatch(insertAt, BodyMismatch(expected, actual,
+            Some(s"Expected a Map with ${expected.size} elements but received ${keys.size} elements"),
+            path.toString, diff))
+        }
+        if (!wildcard) {
+          expected.foreach { case (key, value) =>
+            if (!keys.contains(key)) {
+              context.addMismatch(BodyMismatch(expected, actual,
+                Some(s"Expected $key=${treeMatcher.valueOf(value)} but was missing"), path.toString, diff))
+            }
+          }
+        }
+      }
+    }
+
+    /**
+      * Skips the rest of the list or map that the current token is the first entry of
+      */
+    private def skipRest(): Unit = {
+      var depth = 1
+      var token = parser.getCurrentToken
+      while (true) {
+        if (token == JsonToken.START_OBJECT || token == JsonToken.START_ARRAY) depth += 1
+        else if (token == JsonToken.END_OBJECT || token == JsonToken.END_ARRAY) depth -= 1
+        if (depth == 0) return
+        token = parser.nextToken()
+        if (token == null) throw new JsonParseException(parser, "Unexpected end of the body")
+      }
+    }
+
+    /**
+      * Builds the value of the current token, in the same form the JsonBodyMatcher gets from parsing the whole body
+      */
+    private def readValue(): Any = parser.getCurrentToken match {
+      case JsonToken.START_OBJECT | JsonToken.START_ARRAY =>
+        val start = parser.getTokenLocation.getCharOffset
+        parser.skipChildren()
+        readSlice(start)
+      case JsonToken.VALUE_STRING => parser.getText
+      case JsonToken.VALUE_NUMBER_INT => parser.getNumberValue
+      case JsonToken.VALUE_NUMBER_FLOAT => parser.getDecimalValue
+      case JsonToken.VALUE_TRUE => java.lang.Boolean.TRUE
+      case JsonToken.VALUE_FALSE => java.lang.Boolean.FALSE
+      case JsonToken.VALUE_NULL => null
+      case token => throw new JsonParseException(parser, s"Unexpected token $token")
+    }
+
+    /**
+      * Parses the part of the body from the start offset to the end of the current token
+      */
+    private def readSlice(start: Long): Any =
+      JsonUtils.parseJsonString(body.substring(start.toInt, parser.getCurrentLocation.getCharOffset.toInt))
+  }
+}
+
+object StreamingJsonBodyMatcher {
+
+  private val jsonFactory = new JsonFactory()
+
+  // expected bodies are kept with the interaction, so each one only needs to be parsed once
+  private val expectedBodies: Cache[OptionalBody, Option[Any]] = CacheBuilder.newBuilder().weakKeys()
+    .build[OptionalBody, Option[Any]]()
+
+  private def expectedValue(body: OptionalBody): Any = {
+    val cached = expectedBodies.getIfPresent(body)
+    if (cached != null) {
+      cached.orNull
+    } else {
+      val value = JsonUtils.parseJsonString(body.getValue)
+      expectedBodies.put(body, Option(value))
+      value
+    }
+  }
+}
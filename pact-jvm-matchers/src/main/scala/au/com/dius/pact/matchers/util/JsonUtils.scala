@@ -14,7 +14,7 @@ object JsonUtils {
   def javaObjectGraphToScalaObjectGraph(value: AnyRef): Any = {
     value match {
       case jmap: java.util.Map[String, AnyRef] =>
-        JavaConversions.mapAsScalaMap(jmap).toMap.mapValues(javaObjectGraphToScalaObjectGraph)
+        JavaConversions.mapAsScalaMap(jmap).map(entry => (entry._1, javaObjectGraphToScalaObjectGraph(entry._2))).toMap
       case jlist: java.util.List[AnyRef] =>
         JavaConversions.collectionAsScalaIterable(jlist).map(javaObjectGraphToScalaObjectGraph).toList
       case _ => value
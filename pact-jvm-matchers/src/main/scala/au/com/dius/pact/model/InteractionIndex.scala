@@ -0,0 +1,90 @@
+package au.com.dius.pact.model
+
+import au.com.dius.pact.matchers.{Matchers, PatternCache}
+
+import scala.collection.mutable
+
+/**
+  * Index of the expected interactions by method and path, so that a request is only compared to the interactions it
+  * could match. Paths that are plain text are added to a trie of path segments. Paths with a path matcher, or that
+  * contain regular expression characters, are kept in a fallback bucket for the method and are checked one by one.
+  *
+  * The candidates for a request are all the interactions with a matching method and path, in the order of the pact,
+  * which are the same interactions that would be reported as full or partial matches by comparing each interaction.
+  */
+class InteractionIndex private (interactions: IndexedSeq[RequestResponseInteraction]) {
+  import InteractionIndex._
+
+  private val methods = mutable.HashMap[String, MethodIndex]()
+
+  interactions.zipWithIndex.foreach { case (interaction, ordinal) =>
+    val request = interaction.getRequest
+    val index = methods.getOrElseUpdate(methodKey(request.getMethod), new MethodIndex)
+    if (isLiteralPath(request)) {
+      index.paths.insert(segments(request.getPath), ordinal)
+    } else {
+      index.fallback += ordinal
+    }
+  }
+
+  /**
+    * Returns the interactions with the same method and path as the request, in the order of the pact
+    */
+  def candidates(actual: Request): Seq[RequestResponseInteraction] = {
+    methods.get(methodKey(actual.getMethod)) match {
+      case Some(index) =>
+        val literal = index.paths.lookup(segments(stripServer(actual.getPath)))
+        val fallback = index.fallback.filter(ordinal => RequestMatching.methodAndPathMatch(
+          interactions(ordinal).getRequest, actual))
+        if (fallback.isEmpty) literal.map(interactions)
+        else (literal ++ fallback).sorted.map(interactions)
+      case None => Seq()
+    }
+  }
+}
+
+object InteractionIndex {
+
+  private val ServerPrefix = "http[s]*://([^/]*)"
+
+  // characters that make a path a regular expression instead of plain text
+  private val RegexCharacters = "\\.[]{}()*+?^$|"
+
+  private[model] class PathNode {
+    val children = mutable.HashMap[String, PathNode]()
+    val ordinals = mutable.ArrayBuffer[Int]()
+
+    def insert(segments: Seq[String], ordinal: Int): Unit = {
+      val node = segments.foldLeft(this)((parent, segment) => parent.children.getOrElseUpdate(segment, new PathNode))
+      node.ordinals += ordinal
+    }
+
+    def lookup(segments: Seq[String]): Seq[Int] = {
+      var node = this
+      val iterator = segments.iterator
+      while (node != null && iterator.hasNext) {
+        node = node.children.getOrElse(iterator.next(), null)
+      }
+      if (node == null) Seq() else node.ordinals
+    }
+  }
+
+  private[model] class MethodIndex {
+    val paths = new PathNode
+    val fallback = mutable.ArrayBuffer[Int]()
+  }
+
+  def apply(interactions: Seq[RequestResponseInteraction]): InteractionIndex =
+    new InteractionIndex(interactions.toIndexedSeq)
+
+  private def methodKey(method: String) = if (method == null) "" else method.toUpperCase
+
+  private def isLiteralPath(request: Request) =
+    request.getPath != null && request.getMethod != null &&
+      !Matchers.matcherDefined("path", Seq(), request.getMatchingRules) &&
+      !request.getPath.exists(c => RegexCharacters.indexOf(c) >= 0)
+
+  private def stripServer(path: String) = PatternCache.compile(ServerPrefix).matcher(path).replaceFirst("")
+
+  private def segments(path: String): Seq[String] = path.split("/", -1)
+}
@@ -42,13 +42,85 @@ case class HeaderMismatch(headerKey: String, expected: String, actual: String, m
   }
 }
 case class BodyTypeMismatch(expected: String, actual: String) extends RequestPartMismatch with ResponsePartMismatch
-case class BodyMismatch(expected: Any, actual: Any, mismatch: Option[String] = None, path: String = "/", diff: Option[String] = None)
+case class BodyMismatch(expected: Any, actual: Any, mismatch: Option[String] = None, path: String = "/")
   extends RequestPartMismatch with ResponsePartMismatch {
+  // not a case class field, so mismatches are compared and hashed without generating their diffs
+  private var diffGenerator: LazyDiff = LazyDiff.empty
+
+  def this(expected: Any, actual: Any, mismatch: Option[String], path: String, diffGenerator: LazyDiff) = {
+    this(expected, actual, mismatch, path)
+    this.diffGenerator = diffGenerator
+  }
+
+  def this(expected: Any, actual: Any, mismatch: Option[String], path: String, diff: Option[String]) =
+    this(expected, actual, mismatch, path, LazyDiff.of(diff))
+
+  /**
+    * Diff between the expected and actual values. It is generated the first time it is requested
+    */
+  def diff: Option[String] = diffGenerator.get
+
+  def isDiffGenerated: Boolean = diffGenerator.isGenerated
+
+  def copy(expected: Any = this.expected, actual: Any = this.actual, mismatch: Option[String] = this.mismatch,
+           path: String = this.path): BodyMismatch =
+    new BodyMismatch(expected, actual, mismatch, path, diffGenerator)
+
   override def description: String = mismatch match {
     case Some(message) => s"BodyMismatch - $message"
     case _ => toString
   }
+
+  override def toString: String = s"BodyMismatch($expected,$actual,$mismatch,$path,$diff)"
+}
+
+object BodyMismatch {
+  def apply(expected: Any, actual: Any, mismatch: Option[String], path: String, diff: Option[String]): BodyMismatch =
+    new BodyMismatch(expected, actual, mismatch, path, diff)
+
+  def apply(expected: Any, actual: Any, mismatch: Option[String], path: String, diff: LazyDiff): BodyMismatch =
+    new BodyMismatch(expected, actual, mismatch, path, diff)
+
+  def unapply(mismatch: BodyMismatch): Option[(Any, Any, Option[String], String, Option[String])] =
+    Some((mismatch.expected, mismatch.actual, mismatch.mismatch, mismatch.path, mismatch.diff))
 }
+
+/**
+  * Diff between the expected and actual values of a body mismatch. Generating a diff is expensive and most callers
+  * only need to know if there was a mismatch, so the diff is generated the first time it is requested and then kept.
+  */
+final class LazyDiff private (private var generator: () => Option[String]) {
+  @volatile private var generated: Option[String] = _
+
+  def get: Option[String] = {
+    var result = generated
+    if (result == null) {
+      synchronized {
+        if (generated == null) {
+          generated = generator()
+          generator = null
+        }
+        result = generated
+      }
+    }
+    result
+  }
+
+  def isGenerated: Boolean = generated != null
+}
+
+object LazyDiff {
+  val empty: LazyDiff = of(None)
+
+  def apply(diff: => String): LazyDiff = new LazyDiff(() => Some(diff))
+
+  def of(diff: Option[String]): LazyDiff = {
+    val result = new LazyDiff(() => diff)
+    result.get
+    result
+  }
+}
+
 case class CookieMismatch(expected: Cookies, actual: Cookies) extends RequestPartMismatch
 case class PathMismatch(expected: Path, actual: Path, mismatch: Option[String] = None) extends RequestPartMismatch {
   override def description: String = mismatch match {
@@ -62,7 +134,7 @@ case class QueryMismatch(queryParameter: String, expected: String, actual: Strin
 object BodyMismatchFactory extends MismatchFactory[BodyMismatch] {
   import JavaConversions._
   def create(expected: Object, actual: Object, message: String, path: java.util.List[String]) =
-    BodyMismatch(expected, actual, Some(message), path.toList.mkString("."), None)
+    BodyMismatch(expected, actual, Some(message), path.toList.mkString("."))
 }
 
 object PathMismatchFactory extends MismatchFactory[PathMismatch] {
@@ -179,16 +251,32 @@ object Matching extends StrictLogging {
     }
   }
 
+  /**
+    * If the bodies match, without collecting the mismatches. Body matchers that support it stop at the first mismatch
+    */
+  def bodyMatches(expected: HttpPart, actual: HttpPart, allowUnexpectedKeys: Boolean): Boolean = {
+    if (expected.mimeType == actual.mimeType) {
+      val result = MatchingConfig.lookupBodyMatcher(actual.mimeType)
+      if (result.isDefined) {
+        result.get._2.bodyMatches(expected, actual, allowUnexpectedKeys)
+      } else {
+        matchBody(expected, actual, allowUnexpectedKeys).isEmpty
+      }
+    } else {
+      expected.getBody.isMissing || expected.getBody.isNull || expected.getBody.isEmpty
+    }
+  }
+
   def matchPath(expected: Request, actual: Request): Option[PathMismatch] = {
     val pathFilter = "http[s]*://([^/]*)"
-    val replacedActual = actual.getPath.replaceFirst(pathFilter, "")
+    val replacedActual = PatternCache.compile(pathFilter).matcher(actual.getPath).replaceFirst("")
     val matchers = expected.getMatchingRules
     if (Matchers.matcherDefined("path", Seq(), matchers)) {
       val mismatch = Matchers.domatch[PathMismatch](matchers, "path", Seq(), expected.getPath,
         replacedActual, PathMismatchFactory)
       mismatch.headOption
     }
-    else if(expected.getPath == replacedActual || replacedActual.matches(expected.getPath)) None
+    else if(expected.getPath == replacedActual || PatternCache.matches(expected.getPath, replacedActual)) None
     else Some(PathMismatch(expected.getPath, replacedActual))
   }
   
@@ -1,21 +1,34 @@
 package au.com.dius.pact.model
 
+import com.google.common.cache.{Cache, CacheBuilder}
 import com.typesafe.scalalogging.StrictLogging
 
 import scala.collection.JavaConversions
 
 case class RequestMatching(expectedInteractions: Seq[RequestResponseInteraction]) {
   import au.com.dius.pact.model.RequestMatching._
-      
+
+  private lazy val index = InteractionIndex(expectedInteractions)
+
+  /**
+    * Finds the interaction that matches the request. Only the interactions with a matching method and path are looked
+    * at, as found from the interaction index, since these are the only ones that can be reported as full or partial
+    * matches. They are first checked without collecting their mismatches, so the first full match is returned as soon
+    * as it is found. Only when there is no full match are the mismatches collected for the partial matches.
+    */
   def matchInteraction(actual: Request): RequestMatch = {
-    def compareToActual(expected: RequestResponseInteraction) = compareRequest(expected, actual)
-    val matches = expectedInteractions.map(compareToActual)
-    if (matches.isEmpty)
-      RequestMismatch
-    else
-      matches.reduceLeft(_ merge _)
+    val candidates = index.candidates(actual)
+    candidates.find(e => otherPartsMatch(e.getRequest, actual)) match {
+      case Some(interaction) => FullRequestMatch(interaction)
+      case None =>
+        val matches = candidates.map(compareRequest(_, actual))
+        if (matches.isEmpty)
+          RequestMismatch
+        else
+          matches.reduceLeft(_ merge _)
+    }
   }
-      
+
   def findResponse(actual: Request): Option[Response] = 
     matchInteraction(actual).toOption.map(_.asInstanceOf[RequestResponseInteraction].getResponse)
 }
@@ -25,6 +38,24 @@ object RequestMatching extends StrictLogging {
 
   var allowUnexpectedKeys = false
 
+  // the interaction index is built by the first request, so the matching is kept for each list of interactions
+  private val matchings: Cache[Seq[RequestResponseInteraction], RequestMatching] = CacheBuilder.newBuilder()
+    .weakKeys().build[Seq[RequestResponseInteraction], RequestMatching]()
+
+  /**
+    * Returns the request matching for the interactions, reusing the one created for the same list of interactions
+    */
+  def forInteractions(interactions: Seq[RequestResponseInteraction]): RequestMatching = {
+    val cached = matchings.getIfPresent(interactions)
+    if (cached != null) {
+      cached
+    } else {
+      val matching = RequestMatching(interactions)
+      matchings.put(interactions, matching)
+      matching
+    }
+  }
+
   implicit def liftPactForMatching(pact: RequestResponsePact): RequestMatching =
     RequestMatching(JavaConversions.collectionAsScalaIterable(pact.getInteractions).toSeq)
                      
@@ -44,6 +75,24 @@ object RequestMatching extends StrictLogging {
     decideRequestMatch(expected, mismatches)
   }
                                               
+  def methodAndPathMatch(expected: Request, actual: Request): Boolean =
+    matchMethod(expected.getMethod, actual.getMethod).isEmpty && matchPath(expected, actual).isEmpty
+
+  /**
+    * If the request matches the expected one. Stops at the first part that does not match, and does not collect the
+    * mismatches of the body
+    */
+  def requestMatches(expected: Request, actual: Request): Boolean =
+    methodAndPathMatch(expected, actual) && otherPartsMatch(expected, actual)
+
+  private def otherPartsMatch(expected: Request, actual: Request): Boolean = {
+    matchQuery(expected, actual).isEmpty &&
+      matchCookie(au.com.dius.pact.matchers.util.CollectionUtils.toOptionalList(expected.cookie),
+        au.com.dius.pact.matchers.util.CollectionUtils.toOptionalList(actual.cookie)).isEmpty &&
+      matchRequestHeaders(expected, actual).isEmpty &&
+      bodyMatches(expected, actual, allowUnexpectedKeys)
+  }
+
   def requestMismatches(expected: Request, actual: Request): Seq[RequestPartMismatch] = {
     logger.debug("comparing to expected request: \n" + expected)
     (matchMethod(expected.getMethod, actual.getMethod)
@@ -0,0 +1,30 @@
+package au.com.dius.pact.matchers
+
+import spock.lang.Specification
+
+class DiffUtilsSpec extends Specification {
+
+  def 'generates a diff of the JSON form of the objects'() {
+    expect:
+    DiffUtilsKt.generateObjectDiff([a: 1, b: 2], [a: 1, b: 3]).split('\n') as List == [
+      '    "a": 1,',
+      '-    "b": 2',
+      '+    "b": 3',
+      '}'
+    ]
+  }
+
+  def 'truncates diffs larger than the maximum size'() {
+    given:
+    def expected = (1..100).collect { [id: it] }
+    def actual = (1..100).collect { [id: it * 2] }
+
+    when:
+    def diff = DiffUtilsKt.generateObjectDiff(expected, actual, 200)
+
+    then:
+    diff.size() < 300
+    diff.endsWith('more lines)')
+  }
+
+}
@@ -21,4 +21,35 @@ class MatchingConfigSpec extends Specification {
     'application/jsonrequest' | 'JsonBodyMatcher'
   }
 
+  def 'picks up body matchers added after a lookup'() {
+    given:
+    def matcher = new PlainTextBodyMatcher()
+    MatchingConfig.lookupBodyMatcher('text/csv')
+
+    when:
+    MatchingConfig.bodyMatchers().put('text/csv', matcher)
+
+    then:
+    MatchingConfig.lookupBodyMatcher('text/csv').get()._2().is(matcher)
+
+    cleanup:
+    MatchingConfig.bodyMatchers().remove('text/csv')
+  }
+
+  def 'picks up body matchers that replace a matcher after a lookup'() {
+    given:
+    def original = MatchingConfig.bodyMatchers().get('text/plain').get()
+    def matcher = new PlainTextBodyMatcher()
+    MatchingConfig.lookupBodyMatcher('text/plain')
+
+    when:
+    MatchingConfig.bodyMatchers().put('text/plain', matcher)
+
+    then:
+    MatchingConfig.lookupBodyMatcher('text/plain').get()._2().is(matcher)
+
+    cleanup:
+    MatchingConfig.bodyMatchers().put('text/plain', original)
+  }
+
 }
@@ -0,0 +1,28 @@
+package au.com.dius.pact.matchers
+
+import spock.lang.Specification
+
+import java.util.regex.PatternSyntaxException
+
+class PatternCacheSpec extends Specification {
+
+  def 'returns the same compiled pattern for the same expression'() {
+    expect:
+    PatternCache.compile('\\d+').is(PatternCache.compile('\\d+'))
+  }
+
+  def 'matches against the whole value'() {
+    expect:
+    PatternCache.matches('\\d+', '100')
+    !PatternCache.matches('\\d+', '100a')
+  }
+
+  def 'invalid expressions throw an exception'() {
+    when:
+    PatternCache.compile('[a-z')
+
+    then:
+    thrown(PatternSyntaxException)
+  }
+
+}
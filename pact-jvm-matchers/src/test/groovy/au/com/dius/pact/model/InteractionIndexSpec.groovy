@@ -0,0 +1,51 @@
+package au.com.dius.pact.model
+
+import au.com.dius.pact.model.matchingrules.RegexMatcher
+import scala.collection.JavaConversions
+import spock.lang.Specification
+
+class InteractionIndexSpec extends Specification {
+
+  private static interaction(String description, Request request) {
+    new RequestResponseInteraction(description, [], request, new Response())
+  }
+
+  private static candidates(List interactions, Request request) {
+    JavaConversions.seqAsJavaList(InteractionIndex.apply(JavaConversions.asScalaBuffer(interactions).toSeq())
+      .candidates(request))*.description
+  }
+
+  def 'returns the interactions with the same method and path'() {
+    given:
+    def interactions = [
+      interaction('get path', new Request('GET', '/path')),
+      interaction('post path', new Request('POST', '/path')),
+      interaction('get other', new Request('GET', '/path/other')),
+      interaction('get path again', new Request('get', '/path'))
+    ]
+
+    expect:
+    candidates(interactions, new Request('GET', '/path')) == ['get path', 'get path again']
+    candidates(interactions, new Request('post', 'http://localhost:8080/path')) == ['post path']
+    candidates(interactions, new Request('GET', '/path/')) == []
+    candidates(interactions, new Request('PUT', '/path')) == []
+  }
+
+  def 'checks paths that are regular expressions or have a matcher in the order of the pact'() {
+    given:
+    def withMatcher = new Request('GET', '/path/1')
+    withMatcher.matchingRules.addCategory('path').addRule(new RegexMatcher('/path/\\d+'))
+    def interactions = [
+      interaction('regex', new Request('GET', '/path/[0-9]+')),
+      interaction('literal', new Request('GET', '/path/2')),
+      interaction('matcher', withMatcher),
+      interaction('dot', new Request('GET', '/path.json'))
+    ]
+
+    expect:
+    candidates(interactions, new Request('GET', '/path/2')) == ['regex', 'literal', 'matcher']
+    candidates(interactions, new Request('GET', '/path/a')) == []
+    candidates(interactions, new Request('GET', '/path.json')) == ['dot']
+  }
+
+}
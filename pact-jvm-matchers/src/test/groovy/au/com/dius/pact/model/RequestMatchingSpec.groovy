@@ -254,4 +254,41 @@ class RequestMatchingSpec extends Specification {
     !actualResponse.defined
   }
 
+  def 'match interaction returns the full match when an earlier interaction partially matches'() {
+    given:
+    def partial = new RequestResponseInteraction('partial', testState,
+      new Request('GET', '/', null, null, OptionalBody.body('{"test": false}')), response)
+    def full = new RequestResponseInteraction('full', testState, request, response)
+    def matching = new RequestMatching(JavaConversions.asScalaBuffer([partial, full]).toSeq())
+
+    expect:
+    matching.matchInteraction(request) == new FullRequestMatch(full)
+  }
+
+  def 'match interaction only reports the interactions with the same method and path'() {
+    given:
+    def otherPath = new RequestResponseInteraction('other path', testState,
+      new Request('GET', '/other', null, null, OptionalBody.body('{"test": false}')), response)
+    def samePath = new RequestResponseInteraction('same path', testState,
+      new Request('GET', '/', null, null, OptionalBody.body('{"test": false}')), response)
+    def matching = new RequestMatching(JavaConversions.asScalaBuffer([otherPath, samePath]).toSeq())
+
+    when:
+    def result = matching.matchInteraction(request)
+
+    then:
+    result instanceof PartialRequestMatch
+    JavaConversions.asJavaCollection(result.problems().keys()).toList() == [samePath]
+  }
+
+  def 'requests match without collecting the mismatches'() {
+    given:
+    def impreciseRequest = request.copy()
+    impreciseRequest.body = OptionalBody.body('{"test": false}')
+
+    expect:
+    RequestMatching.requestMatches(request, request.copy())
+    !RequestMatching.requestMatches(request, impreciseRequest)
+  }
+
 }
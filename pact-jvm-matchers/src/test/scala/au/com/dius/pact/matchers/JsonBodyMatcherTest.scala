@@ -155,6 +155,36 @@ class JsonBodyMatcherTest extends Specification with AllExpectations {
         mismatches must containMessage("Type mismatch: Expected List List(100, 100) but received Integer 100")
       }
 
+      "with a diff that is only generated when requested" in {
+        expectedBody = OptionalBody.body("{\"something\": 100, \"somethingElse\": 100}")
+        actualBody = OptionalBody.body("{\"something\": 100}")
+        val mismatches = matcher.matchBody(expected(), actual(), allowUnexpectedKeys)
+        val rematched = matcher.matchBody(expected(), actual(), allowUnexpectedKeys).head
+        mismatches.head.isDiffGenerated must beFalse
+        mismatches.head must_== rematched
+        mismatches.head.hashCode must_== rematched.hashCode
+        mismatches.head.isDiffGenerated must beFalse
+        mismatches.head.diff must beSome(contain("somethingElse"))
+        mismatches.head.isDiffGenerated must beTrue
+        mismatches.head.copy().diff must_== mismatches.head.diff
+        rematched.toString must contain("somethingElse")
+      }
+
+      "with the path to the mismatched value" in {
+        expectedBody = OptionalBody.body("{\"list\": [{\"id\": 1}, {\"id\": 2}]}")
+        actualBody = OptionalBody.body("{\"list\": [{\"id\": 1}, {\"id\": 3}]}")
+        val mismatches = matcher.matchBody(expected(), actual(), allowUnexpectedKeys)
+        mismatches.map(_.path) must_== List("$.list.1.id")
+      }
+
+      "when comparing large lists" in {
+        expectedBody = OptionalBody.body((1 to 10000).mkString("[", ",", "]"))
+        actualBody = OptionalBody.body((1 to 10000).map(i => if (i == 5000) 0 else i).mkString("[", ",", "]"))
+        val mismatches = matcher.matchBody(expected(), actual(), allowUnexpectedKeys)
+        mismatches.map(_.path) must_== List("$.4999")
+        mismatches must containMessage("Expected 5000 but received 0")
+      }
+
     }
 
     "with a matcher defined" should {
@@ -175,6 +205,25 @@ class JsonBodyMatcherTest extends Specification with AllExpectations {
 
     }
 
+    "when only checking if the bodies match" should {
+
+      "agree with the mismatches" in {
+        expectedBody = OptionalBody.body("{\"list\": [1, 2, 3], \"map\": {\"a\": 1}}")
+        actualBody = OptionalBody.body("{\"list\": [1, 2, 3], \"map\": {\"a\": 1}}")
+        matcher.bodyMatches(expected(), actual(), allowUnexpectedKeys) must beTrue
+        actualBody = OptionalBody.body("{\"list\": [1, 0, 0], \"map\": {\"b\": 1}}")
+        matcher.bodyMatches(expected(), actual(), allowUnexpectedKeys) must beFalse
+      }
+
+      "agree with the mismatches from a matcher" in {
+        expectedBody = OptionalBody.body("{\"something\": 100}")
+        actualBody = OptionalBody.body("{\"something\": \"a\"}")
+        matchers.addCategory("body").addRule("$.something", new RegexMatcher("\\d+"))
+        matcher.bodyMatches(expected(), actual(), allowUnexpectedKeys) must beFalse
+      }
+
+    }
+
   }
 
 }
@@ -0,0 +1,96 @@
+package au.com.dius.pact.matchers
+
+import au.com.dius.pact.model.matchingrules.{Category, MinTypeMatcher, RegexMatcher, TypeMatcher}
+import org.junit.runner.RunWith
+import org.specs2.mutable.Specification
+import org.specs2.runner.JUnitRunner
+
+@RunWith(classOf[JUnitRunner])
+class PathExpressionIndexTest extends Specification {
+
+  "path expression index" should {
+
+    "resolve the expressions that match the path or a parent of the path" in {
+      val category = new Category("body")
+      category.addRule("$.name", TypeMatcher.INSTANCE)
+      category.addRule("$.name.other", TypeMatcher.INSTANCE)
+      category.addRule("$.other", TypeMatcher.INSTANCE)
+      category.addRule("$.items[1]", TypeMatcher.INSTANCE)
+      category.addRule("$.items[*].id", TypeMatcher.INSTANCE)
+      val index = PathExpressionIndex.compile(category)
+
+      index.resolvedKeys(Seq("$", "name", "other")) must_== Set("$.name", "$.name.other")
+      index.resolvedKeys(Seq("$", "items", "1")) must_== Set("$.items[1]")
+      index.resolvedKeys(Seq("$", "items", "0", "id")) must_== Set("$.items[*].id")
+      index.resolvedKeys(Seq("$", "items", "str", "id")) must beEmpty
+      index.resolvedKeys(Seq("$")) must beEmpty
+    }
+
+    "give the same results as matching each expression against the path" in {
+      val expressions = Seq("$", "$.name", "$.*", "$.*.name", "$[*]", "$[0]", "$.name[1]", "$.name[*].name")
+      val paths = Seq(Seq("$"), Seq("$", "name"), Seq("$", "0"), Seq("$", "some", "name"), Seq("$", "name", "1"),
+        Seq("$", "name", "1", "name"), Seq("$", "str"))
+      val category = new Category("body")
+      expressions.foreach(e => category.addRule(e, TypeMatcher.INSTANCE))
+      val index = PathExpressionIndex.compile(category)
+
+      paths.map(path => index.resolvedKeys(path)) must_==
+        paths.map(path => expressions.filter(Matchers.matchesPath(_, path) > 0).toSet)
+    }
+
+    "select the matcher with the highest weight" in {
+      val category = new Category("body")
+      category.addRule("$.*", TypeMatcher.INSTANCE)
+      category.addRule("$.animals", new MinTypeMatcher(1))
+      category.addRule("$.animals[*].name", new RegexMatcher("\\w+"))
+      val index = PathExpressionIndex.compile(category)
+
+      index.selectBestMatcher(Seq("$", "animals")).getRules.get(0) must_== new MinTypeMatcher(1)
+      index.selectBestMatcher(Seq("$", "animals", "0", "name")).getRules.get(0) must_== new RegexMatcher("\\w+")
+      index.selectBestMatcher(Seq("$", "other")).getRules.get(0) must_== TypeMatcher.INSTANCE
+    }
+
+    "select the first defined matcher when the weights are equal" in {
+      val category = new Category("body")
+      category.addRule("$.*.name", new RegexMatcher("a+"))
+      category.addRule("$.animals.*", new RegexMatcher("b+"))
+      PathExpressionIndex.compile(category).selectBestMatcher(Seq("$", "animals", "name")).getRules.get(0) must_==
+        new RegexMatcher("a+")
+    }
+
+    "be recompiled when the expressions of the category change" in {
+      val category = new Category("body")
+      category.addRule("$.name", TypeMatcher.INSTANCE)
+      val index = PathExpressionIndex.forCategory(category)
+      PathExpressionIndex.forCategory(category) must beTheSameAs(index)
+
+      category.addRule("$.other", TypeMatcher.INSTANCE)
+      PathExpressionIndex.forCategory(category) must not(beTheSameAs(index))
+      PathExpressionIndex.forCategory(category).matcherDefined(Seq("$", "other")) must beTrue
+    }
+
+    "be recompiled when an expression is removed and another one added" in {
+      val category = new Category("body")
+      category.addRule("$.name", TypeMatcher.INSTANCE)
+      val index = PathExpressionIndex.forCategory(category)
+
+      category.removeRules("$.name")
+      category.addRule("$.other", TypeMatcher.INSTANCE)
+      PathExpressionIndex.forCategory(category) must not(beTheSameAs(index))
+      PathExpressionIndex.forCategory(category).matcherDefined(Seq("$", "name")) must beFalse
+      PathExpressionIndex.forCategory(category).matcherDefined(Seq("$", "other")) must beTrue
+    }
+
+    "be recompiled when the map of rules is changed directly" in {
+      val category = new Category("body")
+      category.addRule("$.name", TypeMatcher.INSTANCE)
+      val index = PathExpressionIndex.forCategory(category)
+
+      category.getMatchingRules.remove("$.name")
+      PathExpressionIndex.forCategory(category) must not(beTheSameAs(index))
+      PathExpressionIndex.forCategory(category).matcherDefined(Seq("$", "name")) must beFalse
+    }
+
+  }
+
+}
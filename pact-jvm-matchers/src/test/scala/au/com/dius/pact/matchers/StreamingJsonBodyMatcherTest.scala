@@ -0,0 +1,90 @@
+package au.com.dius.pact.matchers
+
+import au.com.dius.pact.model._
+import au.com.dius.pact.model.matchingrules.{MatchingRules, MinTypeMatcher, RegexMatcher, TypeMatcher}
+import org.junit.runner.RunWith
+import org.specs2.mutable.Specification
+import org.specs2.runner.JUnitRunner
+
+import scala.util.Try
+
+@RunWith(classOf[JUnitRunner])
+class StreamingJsonBodyMatcherTest extends Specification {
+
+  val streamingMatcher = new StreamingJsonBodyMatcher()
+  val treeMatcher = new JsonBodyMatcher()
+
+  def request(body: String, matchers: MatchingRules = new MatchingRules()) =
+    new Request("", "", null, null, OptionalBody.body(body), matchers)
+
+  def mismatches(result: List[BodyMismatch]) = result.map(m => (m.path, m.mismatch)).toSet
+
+  def sameAsTreeMatcher(expected: Request, actual: Request, allowUnexpectedKeys: Boolean) =
+    mismatches(streamingMatcher.matchBody(expected, actual, allowUnexpectedKeys)) must_==
+      mismatches(treeMatcher.matchBody(expected, actual, allowUnexpectedKeys))
+
+  "streaming json body matcher" should {
+
+    "return the same mismatches as the json body matcher" in {
+      val bodies = Seq(
+        ("\"Blah\"", "\"Blah\""),
+        ("\"Blah\"", "\"Other\""),
+        ("100", "100.0"),
+        ("{\"something\": 100}", "{\"something\": 100}"),
+        ("{\"something\": 100}", "{\"something\": 101, \"other\": [1, 2, {\"a\": null}]}"),
+        ("{}", "{\"something\": 100}"),
+        ("[]", "[1, [2, 3]]"),
+        ("[100, 200, 300]", "[100, 200]"),
+        ("[100, 200]", "[100, 200, 300]"),
+        ("{\"a\": {\"b\": [1, {\"c\": true}]}, \"d\": 1}", "{\"d\": 2, \"a\": {\"b\": [2, {\"c\": false}]}}"),
+        ("{\"a\": [1, 2]}", "{\"a\": {\"b\": 1}}"),
+        ("{\"a\": {\"b\": 1}}", "{\"a\": \"b\"}"),
+        ("{\"a\": \"b\"}", "{\"a\": {\"b\": 1}}"),
+        ("{\"a\": 1, \"b\": 2}", "{\"b\": 2}"),
+        ("{\"a\": 12345678901}", "{\"a\": 12345678901}"),
+        ("{\"a\": 123456789012345678901234567890}", "{\"a\": 123456789012345678901234567890}"),
+        ("{\"a\": 1.50}", "{\"a\": 1.5}")
+      )
+
+      forall(bodies) { case (expected, actual) =>
+        sameAsTreeMatcher(request(expected), request(actual), allowUnexpectedKeys = true) and
+          sameAsTreeMatcher(request(expected), request(actual), allowUnexpectedKeys = false)
+      }
+    }
+
+    "return the same mismatches as the json body matcher when matchers are defined" in {
+      val matchers = new MatchingRules()
+      val category = matchers.addCategory("body")
+      category.addRule("$.list", new MinTypeMatcher(1))
+      category.addRule("$.list[*].name", new RegexMatcher("\\w+"))
+      category.addRule("$.id", TypeMatcher.INSTANCE)
+      category.addRule("$.map.*", TypeMatcher.INSTANCE)
+      val expected = request("{\"id\": 1, \"list\": [{\"name\": \"a\"}], \"map\": {\"x\": \"y\"}}", matchers)
+
+      forall(Seq(
+        "{\"id\": 2, \"list\": [{\"name\": \"b\"}, {\"name\": \"c d\"}], \"map\": {\"z\": \"w\", \"q\": 1}}",
+        "{\"id\": \"2\", \"list\": [], \"map\": {}}",
+        "{\"list\": {\"name\": \"a\"}}"
+      )) { actual =>
+        sameAsTreeMatcher(expected, request(actual), allowUnexpectedKeys = true) and
+          sameAsTreeMatcher(expected, request(actual), allowUnexpectedKeys = false)
+      }
+    }
+
+    "report the size of a map before the mismatches of its entries" in {
+      val result = streamingMatcher.matchBody(request("{\"a\": 1}"), request("{\"a\": 2, \"b\": 3}"), false)
+      result.map(_.mismatch) must_== List(Some("Expected a Map with 1 elements but received 2 elements"),
+        Some("Expected 1 but received 2"))
+    }
+
+    "fall back to the json body matcher for bodies it can not read" in {
+      val expected = request("{\"a\": 1}")
+      forall(Seq("{\"a\": 1} {\"b\": 2}", "{\"a\": 1")) { actual =>
+        Try(mismatches(streamingMatcher.matchBody(expected, request(actual), true))).toOption must_==
+          Try(mismatches(treeMatcher.matchBody(expected, request(actual), true))).toOption
+      }
+    }
+
+  }
+
+}
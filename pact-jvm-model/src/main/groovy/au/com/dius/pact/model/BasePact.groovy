@@ -7,7 +7,12 @@ import groovy.transform.EqualsAndHashCode
 import groovy.transform.ToString
 import groovy.util.logging.Slf4j
 
+import java.nio.ByteBuffer
+import java.nio.CharBuffer
+import java.nio.channels.Channels
+import java.nio.channels.FileChannel
 import java.nio.channels.FileLock
+import java.nio.charset.StandardCharsets
 import java.util.jar.JarInputStream
 
 /**
@@ -23,6 +28,9 @@ abstract class BasePact implements Pact {
     'pact-jvm'          : ['version': lookupVersion()]
   ]
   private static final String METADATA = 'metadata'
+  private static final String ENCODING = 'UTF-8'
+  private static final String INDENT = '    '
+  private static final String LIST_INDENT = INDENT * 2
 
   Consumer consumer
   Provider provider
@@ -77,6 +85,16 @@ abstract class BasePact implements Pact {
     }
   }
 
+  /**
+   * Returns the interactions sorted by provider state and description. The sort key of each interaction is only built
+   * once.
+   */
+  protected static <T extends Interaction> List<T> sortByStateAndDescription(List<T> interactions) {
+    interactions.collect { [it.providerState + it.description, it] }
+      .sort { it[0] }
+      .collect { it[1] } as List<T>
+  }
+
   @SuppressWarnings(['ConfusingMethodName'])
   static Map metaData(String version) {
     [
@@ -91,43 +109,92 @@ abstract class BasePact implements Pact {
     synchronized (pactFile) {
       if (pactFile.exists() && pactFile.length() > 0) {
         RandomAccessFile raf = new RandomAccessFile(pactFile, 'rw')
-        FileLock lock = raf.channel.lock()
+        FileChannel channel = raf.channel
+        FileLock lock = channel.lock()
         try {
-          def existingPact = PactReader.loadPact(readLines(raf))
+          def existingPact = PactReader.loadPact(readPactFile(channel))
           def result = PactMerge.merge(existingPact, this)
           if (!result.ok) {
             throw new InvalidPactException(result.message)
           }
-          raf.seek(0)
-          def bytes = JsonOutput.prettyPrint(this.toJson(pactSpecVersion)).getBytes('UTF-8')
-          raf.setLength(bytes.length)
-          raf.write(bytes)
+          channel.position(0)
+          // the writer is not closed, as that would close the channel before the lock is released
+          Writer writer = new BufferedWriter(Channels.newWriter(channel, ENCODING))
+          writePrettyJson(toJsonMap(pactSpecVersion), writer)
+          writer.flush()
+          channel.truncate(channel.position())
         } finally {
           lock.release()
           raf.close()
         }
       } else {
         pactFile.parentFile.mkdirs()
-        pactFile.withWriter { it.print(JsonOutput.prettyPrint(this.toJson(pactSpecVersion))) }
+        pactFile.withWriter(ENCODING) { Writer writer -> writePrettyJson(toJsonMap(pactSpecVersion), writer) }
       }
     }
   }
 
+  /**
+   * Reads the whole pact file through the channel, so the file stays locked while it is read
+   */
   @CompileStatic
-  private static String readLines(RandomAccessFile file) {
-    StringBuilder data = new StringBuilder()
+  private static Reader readPactFile(FileChannel channel) {
+    ByteBuffer buffer = ByteBuffer.allocate((int) channel.size())
+    int read = 0
+    while (read >= 0 && buffer.hasRemaining()) {
+      read = channel.read(buffer, buffer.position())
+    }
+    buffer.flip()
+    CharBuffer chars = StandardCharsets.UTF_8.decode(buffer)
+    new CharArrayReader(chars.array(), chars.arrayOffset(), chars.remaining())
+  }
 
-    String line = file.readLine()
-    while (line != null) {
-      data.append(line)
-      line = file.readLine()
+  /**
+   * Writes the pact as JSON in the same format as JsonOutput.prettyPrint. Each entry of the pact, and each item of
+   * the lists in it (i.e. the interactions), is pretty printed separately and written out, so the whole pact is
+   * never held as one string.
+   */
+  @CompileStatic
+  private static void writePrettyJson(Map jsonMap, Writer writer) {
+    writer.write('{\n')
+    boolean first = true
+    for (Map.Entry entry : (jsonMap.entrySet() as Set<Map.Entry>)) {
+      if (!first) {
+        writer.write(',\n')
+      }
+      first = false
+      writer.write(INDENT)
+      writer.write(JsonOutput.prettyPrint(JsonOutput.toJson(entry.key.toString())))
+      writer.write(': ')
+      if (entry.value instanceof List) {
+        writer.write('[\n')
+        writer.write(LIST_INDENT)
+        boolean firstItem = true
+        for (Object item : (entry.value as List)) {
+          if (!firstItem) {
+            writer.write(',\n')
+            writer.write(LIST_INDENT)
+          }
+          firstItem = false
+          writer.write(prettyPrint(item, LIST_INDENT))
+        }
+        writer.write('\n')
+        writer.write(INDENT)
+        writer.write(']')
+      } else {
+        writer.write(prettyPrint(entry.value, INDENT))
+      }
     }
+    writer.write('\n}')
+  }
 
-    data.toString()
+  @CompileStatic
+  private static String prettyPrint(Object value, String indent) {
+    JsonOutput.prettyPrint(JsonOutput.toJson(value)).replace('\n', '\n' + indent)
   }
 
   @CompileStatic
-  private String toJson(PactSpecVersion pactSpecVersion) {
+  private Map toJsonMap(PactSpecVersion pactSpecVersion) {
     def jsonMap = toMap(pactSpecVersion)
     if (jsonMap.containsKey(METADATA)) {
       def map = [:] + DEFAULT_METADATA
@@ -136,7 +203,7 @@ abstract class BasePact implements Pact {
     } else {
       jsonMap.put(METADATA, DEFAULT_METADATA)
     }
-    JsonOutput.toJson(jsonMap)
+    jsonMap
   }
 
   Map mergePacts(Map pact, File pactFile) {
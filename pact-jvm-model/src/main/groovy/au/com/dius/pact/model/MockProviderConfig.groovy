@@ -13,12 +13,21 @@ import org.apache.commons.lang.math.RandomUtils
 @SuppressWarnings('FactoryMethodName')
 class MockProviderConfig {
   public static final String LOCALHOST = '127.0.0.1'
+  public static final int DEFAULT_EXECUTOR_POOL_SIZE = Runtime.runtime.availableProcessors() * 2
   private static final String HTTP = 'http'
 
   String hostname = LOCALHOST
   int port = 0
   PactSpecVersion pactVersion = PactSpecVersion.V2
   String scheme = HTTP
+  /**
+   * How the mock server runs the requests it receives. Defaults to one at a time on the server thread
+   */
+  MockServerExecutor executor = MockServerExecutor.DISPATCHER
+  /**
+   * Number of threads used to run requests with the fixed pool executor
+   */
+  int executorPoolSize = DEFAULT_EXECUTOR_POOL_SIZE
 
   String url() {
     "$scheme://$hostname:$port"
@@ -111,4 +120,13 @@ class MockProviderConfig {
   InetSocketAddress address() {
     new InetSocketAddress(hostname, port)
   }
+
+  /**
+   * Returns this config with the mock server running requests with the executor
+   */
+  MockProviderConfig withExecutor(MockServerExecutor executor, int poolSize = DEFAULT_EXECUTOR_POOL_SIZE) {
+    this.executor = executor
+    this.executorPoolSize = poolSize
+    this
+  }
 }
@@ -10,32 +10,110 @@ import groovy.util.logging.Slf4j
 import groovyx.net.http.RESTClient
 import kotlin.Pair
 
+import java.util.function.Supplier
+
 /**
  * Class to load a Pact from a JSON source using a version strategy
  */
 @Slf4j
 class PactReader {
 
+  static final String INDEXED_PROPERTY = 'pact.reader.indexed'
+
   /**
    * Loads a pact file from either a File or a URL
    * @param source a File or a URL
    */
   static Pact loadPact(Map options = [:], def source) {
+    def pactFile = indexedLoading() ? pactFile(source) : null
+    if (pactFile != null) {
+      return loadIndexedPact(pactFile)
+    }
+
     Pair<Object, PactSource> pactInfo = loadFile(source, options)
+    switch (majorVersion(pactInfo.first.metadata)) {
+        case 3:
+            return loadV3Pact(pactInfo.second, pactInfo.first)
+        default:
+            return loadV2Pact(pactInfo.second, pactInfo.first)
+    }
+  }
+
+  /**
+   * If pact files are loaded through an index, set with the `pact.reader.indexed` system property
+   */
+  static boolean indexedLoading() {
+    System.getProperty(INDEXED_PROPERTY) == 'true'
+  }
+
+  /**
+   * Loads the pact file through an index of the file. The file is scanned once to index the interactions, and each
+   * interaction is only loaded from the file when it is accessed, or when a filter on the description or provider
+   * states of the interactions selects it.
+   */
+  static Pact loadIndexedPact(FileSource source) {
+    def index = PactFileIndex.index(source.file)
+    def metadata = index.value('metadata')
+    def provider = Provider.fromMap(index.value('provider') ?: [:])
+    def consumer = Consumer.fromMap(index.value('consumer') ?: [:])
+    def v3 = majorVersion(metadata) == 3
+
+    def pact
+    def messages = index.entries('messages')
+    if (v3 && messages) {
+      pact = new MessagePact(provider, consumer, new IndexedInteractions(messages.collect { entry ->
+        new IndexedInteraction(entry.value('description') ?: '', providerStatesV3(indexedStates(entry)), {
+          PactStreamReader.readMessageJson(new StringReader(entry.text()))
+        } as Supplier)
+      }), metadata as Map)
+    } else {
+      def interactions = index.entries('interactions') ?: []
+      pact = new RequestResponsePact(provider, consumer, new IndexedInteractions(interactions.collect { entry ->
+        def states = indexedStates(entry)
+        new IndexedInteraction(entry.value('description') ?: '',
+          v3 ? providerStatesV3(states) : providerStatesV2(states), {
+          def interactionJson = PactStreamReader.readInteractionJson(new StringReader(entry.text()))
+          v3 ? interactionV3(interactionJson) : interactionV2(interactionJson)
+        } as Supplier)
+      }))
+    }
+    pact.source = source
+    pact
+  }
+
+  // the provider state values of an indexed interaction, with the V2 key renamed as it is when the pact is loaded
+  private static Map indexedStates(PactFileIndex.Entry entry) {
+    def states = [providerState: entry.value('providerState'), providerStates: entry.value('providerStates')]
+    if (!states.providerState && entry.has('provider_state')) {
+      states.providerState = entry.value('provider_state')
+    }
+    states
+  }
+
+  private static int majorVersion(def metadata) {
     def version = '2.0.0'
-    def specification = pactInfo.first.metadata?.'pact-specification'
+    def specification = metadata?.'pact-specification'
     if (specification instanceof Map && specification.version) {
       version = specification.version
     }
     if (version == '3.0') {
         version = '3.0.0'
     }
-    def specVersion = Version.valueOf(version)
-    switch (specVersion.majorVersion) {
-        case 3:
-            return loadV3Pact(pactInfo.second, pactInfo.first)
-        default:
-            return loadV2Pact(pactInfo.second, pactInfo.first)
+    Version.valueOf(version).majorVersion
+  }
+
+  private static FileSource pactFile(def source) {
+    if (source instanceof ClosurePactSource) {
+      pactFile(source.closure.get())
+    } else if (source instanceof FileSource) {
+      source
+    } else if (source instanceof File) {
+      new FileSource(source)
+    } else if (source instanceof String && !(source.toLowerCase() ==~ '(https?|file|s3)://?.*') &&
+      fileExists(source)) {
+      new FileSource(source as File)
+    } else {
+      null
     }
   }
 
@@ -50,17 +128,7 @@ class PactReader {
         def provider = Provider.fromMap(transformedJson.provider as Map)
         def consumer = Consumer.fromMap(transformedJson.consumer as Map)
 
-        def interactions = transformedJson.interactions.collect { i ->
-          def request = extractRequestV3(i.request)
-          def response = extractResponse(i.response)
-          def providerStates = []
-          if (i.providerStates) {
-            providerStates = i.providerStates.collect { ProviderState.fromMap(it) }
-          } else if (i.providerState) {
-            providerStates << new ProviderState(i.providerState)
-          }
-          new RequestResponseInteraction(i.description, providerStates, request, response)
-        }
+        def interactions = transformedJson.interactions.collect { interactionV3(it) }
 
         def pact = new RequestResponsePact(provider, consumer, interactions)
         pact.source = source
@@ -74,18 +142,39 @@ class PactReader {
     def provider = Provider.fromMap(transformedJson.provider ?: [:])
     def consumer = Consumer.fromMap(transformedJson.consumer ?: [:])
 
-    def interactions = transformedJson.interactions.collect { i ->
-      def request = extractRequestV2(i.request ?: [:])
-      def response = extractResponse(i.response ?: [:])
-      new RequestResponseInteraction(i.description, i.providerState ? [ new ProviderState(i.providerState) ] : [],
-        request, response)
-    }
+    def interactions = transformedJson.interactions.collect { interactionV2(it) }
 
     def pact = new RequestResponsePact(provider, consumer, interactions)
     pact.source = source
     pact
   }
 
+  static RequestResponseInteraction interactionV3(def interactionJson) {
+    def request = extractRequestV3(interactionJson.request)
+    def response = extractResponse(interactionJson.response)
+    new RequestResponseInteraction(interactionJson.description, providerStatesV3(interactionJson), request, response)
+  }
+
+  static RequestResponseInteraction interactionV2(def interactionJson) {
+    def request = extractRequestV2(interactionJson.request ?: [:])
+    def response = extractResponse(interactionJson.response ?: [:])
+    new RequestResponseInteraction(interactionJson.description, providerStatesV2(interactionJson), request, response)
+  }
+
+  static List<ProviderState> providerStatesV3(def interactionJson) {
+    if (interactionJson.providerStates) {
+      interactionJson.providerStates.collect { ProviderState.fromMap(it) }
+    } else if (interactionJson.providerState) {
+      [ new ProviderState(interactionJson.providerState.toString()) ]
+    } else {
+      []
+    }
+  }
+
+  static List<ProviderState> providerStatesV2(def interactionJson) {
+    interactionJson.providerState ? [ new ProviderState(interactionJson.providerState.toString()) ] : []
+  }
+
   static Response extractResponse(responseJson) {
     extractBody(responseJson)
     Response.fromMap(responseJson)
@@ -128,6 +217,9 @@ class PactReader {
 
   @SuppressWarnings('DuplicateStringLiteral')
   static transformJson(def pactJson) {
+    if (pactJson instanceof PactStreamReader.PactJson) {
+      return pactJson
+    }
     pactJson.interactions = pactJson.interactions.collect { i ->
       def interaction = i.collectEntries { k, v ->
         def entry = [k, v]
@@ -176,7 +268,7 @@ class PactReader {
       loadFile(source.closure.get(), options)
     } else {
       if (source instanceof FileSource) {
-        new Pair(new JsonSlurper().parse(source.file), source)
+        new Pair(readPactJson(source.file), source)
       } else if (source instanceof InputStream || source instanceof Reader || source instanceof File) {
         loadPactFromFile(source)
       } else if (source instanceof BrokerUrlSource) {
@@ -191,10 +283,10 @@ class PactReader {
         loadPactFromS3Bucket(source, options)
       } else if (source instanceof String && fileExists(source)) {
         def file = source as File
-        new Pair(new JsonSlurper().parse(file), new FileSource(file))
+        new Pair(readPactJson(file), new FileSource(file))
       } else {
         try {
-          new Pair(new JsonSlurper().parseText(source), UnknownPactSource.INSTANCE)
+          new Pair(PactStreamReader.readPactJson(new StringReader(source)), UnknownPactSource.INSTANCE)
         } catch (e) {
           throw new UnsupportedOperationException(
             "Unable to load pact file from '$source' as it is neither a json document, file, input stream, " +
@@ -206,7 +298,14 @@ class PactReader {
   }
 
   static Pair<Object, PactSource> loadPactFromFile(def source) {
-    def pactData = new JsonSlurper().parse(source)
+    def pactData
+    if (source instanceof InputStream) {
+      pactData = PactStreamReader.readPactJson(new InputStreamReader(source, 'UTF-8'))
+    } else if (source instanceof Reader) {
+      pactData = PactStreamReader.readPactJson(source)
+    } else {
+      pactData = readPactJson(source as File)
+    }
     if (source instanceof InputStream) {
       new Pair(pactData, InputStreamPactSource.INSTANCE)
     } else if (source instanceof Reader) {
@@ -218,6 +317,10 @@ class PactReader {
     }
   }
 
+  private static readPactJson(File file) {
+    file.withReader('UTF-8') { PactStreamReader.readPactJson(it) }
+  }
+
   @SuppressWarnings('UnusedPrivateMethodParameter')
   private static Pair<Object, PactSource> loadPactFromS3Bucket(String source, Map options) {
     def s3Uri = new AmazonS3URI(source)
@@ -0,0 +1,287 @@
+package au.com.dius.pact.model
+
+import au.com.dius.pact.model.v3.messaging.Message
+import com.google.gson.stream.JsonReader
+import com.google.gson.stream.JsonToken
+import groovy.json.JsonOutput
+import groovy.transform.CompileStatic
+
+/**
+ * Reads pact JSON from a token stream in a single pass. The interactions are transformed as they are read: the V2
+ * keys are renamed to the V3 ones, and the request and response bodies are copied from the stream as JSON text instead
+ * of being parsed and then serialised again. Messages are built as they are read.
+ */
+@CompileStatic
+@SuppressWarnings('DuplicateStringLiteral')
+class PactStreamReader {
+
+  /**
+   * Pact JSON read by the stream reader, where the interactions have already been transformed
+   */
+  static class PactJson extends LinkedHashMap<String, Object> { }
+
+  /**
+   * Reads the pact JSON from the reader. The reader is not closed.
+   */
+  static Object readPactJson(Reader reader) {
+    JsonReader json = new JsonReader(reader)
+    if (json.peek() != JsonToken.BEGIN_OBJECT) {
+      return readValue(json)
+    }
+
+    PactJson pactJson = new PactJson()
+    json.beginObject()
+    while (json.hasNext()) {
+      String name = json.nextName()
+      switch (name) {
+        case 'interactions':
+          pactJson[name] = readList(json) { readInteraction(json) }
+          break
+        case 'messages':
+          pactJson[name] = readList(json) { readMessage(json) }
+          break
+        default:
+          pactJson[name] = readValue(json)
+      }
+    }
+    json.endObject()
+    pactJson
+  }
+
+  /**
+   * Reads a single interaction from the reader, transformed the same as the interactions of a pact
+   */
+  static Object readInteractionJson(Reader reader) {
+    readInteraction(new JsonReader(reader))
+  }
+
+  /**
+   * Reads a single message from the reader
+   */
+  static Object readMessageJson(Reader reader) {
+    readMessage(new JsonReader(reader))
+  }
+
+  private static Object readList(JsonReader json, Closure readItem) {
+    if (json.peek() != JsonToken.BEGIN_ARRAY) {
+      return readValue(json)
+    }
+
+    List list = []
+    json.beginArray()
+    while (json.hasNext()) {
+      list << readItem.call()
+    }
+    json.endArray()
+    list
+  }
+
+  private static Object readInteraction(JsonReader json) {
+    if (json.peek() != JsonToken.BEGIN_OBJECT) {
+      return readValue(json)
+    }
+
+    Map<String, Object> interaction = [:]
+    Object v2ProviderState = null
+    boolean hasV2ProviderState = false
+    json.beginObject()
+    while (json.hasNext()) {
+      String name = json.nextName()
+      switch (name) {
+        case 'provider_state':
+          v2ProviderState = readValue(json)
+          hasV2ProviderState = true
+          break
+        case 'request':
+        case 'response':
+          interaction[name] = readRequestResponse(json)
+          break
+        default:
+          interaction[name] = readValue(json)
+      }
+    }
+    json.endObject()
+    if (hasV2ProviderState && !interaction['providerState']) {
+      interaction['providerState'] = v2ProviderState
+    }
+    interaction
+  }
+
+  private static Object readRequestResponse(JsonReader json) {
+    if (json.peek() != JsonToken.BEGIN_OBJECT) {
+      return readValue(json)
+    }
+
+    Map<String, Object> part = [:]
+    json.beginObject()
+    while (json.hasNext()) {
+      String name = json.nextName()
+      switch (name) {
+        case 'requestMatchingRules':
+        case 'responseMatchingRules':
+          part['matchingRules'] = readValue(json)
+          break
+        case 'method':
+          def method = readValue(json)
+          part[name] = method ? method.toString().toUpperCase() : method
+          break
+        case 'body':
+          part[name] = readBody(json)
+          break
+        default:
+          part[name] = readValue(json)
+      }
+    }
+    json.endObject()
+    part
+  }
+
+  private static Object readMessage(JsonReader json) {
+    if (json.peek() != JsonToken.BEGIN_OBJECT) {
+      return readValue(json)
+    }
+
+    Map<String, Object> map = [:]
+    OptionalBody contents = null
+    json.beginObject()
+    while (json.hasNext()) {
+      String name = json.nextName()
+      if (name == 'contents') {
+        contents = readContents(json)
+      } else {
+        map[name] = readValue(json)
+      }
+    }
+    json.endObject()
+    Message message = Message.fromMap(map)
+    if (contents != null) {
+      message.contents = contents
+    }
+    message
+  }
+
+  private static String readBody(JsonReader json) {
+    switch (json.peek()) {
+      case JsonToken.STRING:
+        return json.nextString()
+      case JsonToken.NULL:
+        json.nextNull()
+        return null
+      default:
+        return readJsonText(json)
+    }
+  }
+
+  private static OptionalBody readContents(JsonReader json) {
+    switch (json.peek()) {
+      case JsonToken.NULL:
+        json.nextNull()
+        return OptionalBody.nullBody()
+      case JsonToken.STRING:
+        String contents = json.nextString()
+        return contents.empty ? OptionalBody.empty() : OptionalBody.body(JsonOutput.toJson(contents))
+      default:
+        return OptionalBody.body(readJsonText(json))
+    }
+  }
+
+  /**
+   * Copies the next value from the stream as compact JSON text, formatted the same as JsonOutput would format it
+   */
+  private static String readJsonText(JsonReader json) {
+    StringBuilder out = new StringBuilder()
+    copyJson(json, out)
+    out.toString()
+  }
+
+  private static void copyJson(JsonReader json, StringBuilder out) {
+    switch (json.peek()) {
+      case JsonToken.BEGIN_OBJECT:
+        out.append('{')
+        json.beginObject()
+        boolean first = true
+        while (json.hasNext()) {
+          if (!first) {
+            out.append(',')
+          }
+          first = false
+          out.append(JsonOutput.toJson(json.nextName())).append(':')
+          copyJson(json, out)
+        }
+        json.endObject()
+        out.append('}')
+        break
+      case JsonToken.BEGIN_ARRAY:
+        out.append('[')
+        json.beginArray()
+        boolean firstItem = true
+        while (json.hasNext()) {
+          if (!firstItem) {
+            out.append(',')
+          }
+          firstItem = false
+          copyJson(json, out)
+        }
+        json.endArray()
+        out.append(']')
+        break
+      case JsonToken.STRING:
+        out.append(JsonOutput.toJson(json.nextString()))
+        break
+      case JsonToken.NUMBER:
+        out.append(JsonOutput.toJson(toNumber(json.nextString())))
+        break
+      case JsonToken.BOOLEAN:
+        out.append(json.nextBoolean())
+        break
+      default:
+        json.nextNull()
+        out.append('null')
+    }
+  }
+
+  private static Object readValue(JsonReader json) {
+    switch (json.peek()) {
+      case JsonToken.BEGIN_OBJECT:
+        Map<String, Object> map = [:]
+        json.beginObject()
+        while (json.hasNext()) {
+          map[json.nextName()] = readValue(json)
+        }
+        json.endObject()
+        return map
+      case JsonToken.BEGIN_ARRAY:
+        List list = []
+        json.beginArray()
+        while (json.hasNext()) {
+          list << readValue(json)
+        }
+        json.endArray()
+        return list
+      case JsonToken.STRING:
+        return json.nextString()
+      case JsonToken.NUMBER:
+        return toNumber(json.nextString())
+      case JsonToken.BOOLEAN:
+        return json.nextBoolean()
+      default:
+        json.nextNull()
+        return null
+    }
+  }
+
+  // numbers are converted to the same types as JsonSlurper uses
+  private static Number toNumber(String value) {
+    if (value.contains('.') || value.contains('e') || value.contains('E')) {
+      return new BigDecimal(value)
+    }
+    BigInteger number = new BigInteger(value)
+    if (number.bitLength() < 32) {
+      number.intValue()
+    } else if (number.bitLength() < 64) {
+      number.longValue()
+    } else {
+      number
+    }
+  }
+}
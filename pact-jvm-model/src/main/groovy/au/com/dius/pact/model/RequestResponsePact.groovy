@@ -26,7 +26,7 @@ class RequestResponsePact extends BasePact {
   }
 
   Pact sortInteractions() {
-    interactions = new ArrayList<RequestResponseInteraction>(interactions).sort { it.providerState + it.description }
+    interactions = sortByStateAndDescription(interactions)
     this
   }
 
@@ -43,8 +43,7 @@ class RequestResponsePact extends BasePact {
 
   @Override
   void mergeInteractions(List<Interaction> interactions) {
-    this.interactions = (this.interactions + (interactions as List<RequestResponseInteraction>))
-      .unique { it.uniqueKey() }
+    this.interactions = PactMerge.mergeUnique(this.interactions, interactions as List<RequestResponseInteraction>)
     sortInteractions()
   }
 
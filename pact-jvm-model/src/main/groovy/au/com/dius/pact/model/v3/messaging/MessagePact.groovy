@@ -6,6 +6,7 @@ import au.com.dius.pact.model.FilteredPact
 import au.com.dius.pact.model.Interaction
 import au.com.dius.pact.model.InvalidPactException
 import au.com.dius.pact.model.Pact
+import au.com.dius.pact.model.PactMerge
 import au.com.dius.pact.model.PactSpecVersion
 import au.com.dius.pact.model.Provider
 import groovy.transform.CompileStatic
@@ -37,7 +38,7 @@ class MessagePact extends BasePact {
   static MessagePact fromMap(Map map) {
     def consumer = Consumer.fromMap(map.consumer as Map)
     def provider = Provider.fromMap(map.provider as Map)
-    def messages = map.messages.collect { Message.fromMap((Map) it) }
+    def messages = map.messages.collect { it instanceof Message ? (Message) it : Message.fromMap((Map) it) }
     def metadata = map.metadata as Map
     new MessagePact(provider, consumer, messages, metadata)
   }
@@ -58,7 +59,7 @@ class MessagePact extends BasePact {
 
   @Override
   void mergeInteractions(List<Interaction> interactions) {
-    messages = (messages + (interactions as List<Message>)).unique { it.uniqueKey() }
+    messages = PactMerge.mergeUnique(messages, interactions as List<Message>)
     sortInteractions()
   }
 
@@ -68,7 +69,7 @@ class MessagePact extends BasePact {
 
   @Override
   Pact sortInteractions() {
-    messages.sort { it.providerState + it.description }
+    messages = sortByStateAndDescription(messages)
     this
   }
 
@@ -4,7 +4,15 @@ import java.util.function.Predicate
 
 class FilteredPact(val pact: Pact, private val interactionPredicate: Predicate<Interaction>) : Pact by pact {
   override val interactions: List<Interaction>
-    get() = pact.interactions.filter { interactionPredicate.test(it) }
+    get() {
+      val interactions = pact.interactions
+      return if (interactions is IndexedInteractions<*>) interactions.filter(interactionPredicate)
+        else interactions.filter { interactionPredicate.test(it) }
+    }
 
-  fun isNotFiltered() = pact.interactions.all { interactionPredicate.test(it) }
+  fun isNotFiltered(): Boolean {
+    val interactions = pact.interactions
+    return if (interactions is IndexedInteractions<*>) interactions.all(interactionPredicate)
+      else interactions.all { interactionPredicate.test(it) }
+  }
 }
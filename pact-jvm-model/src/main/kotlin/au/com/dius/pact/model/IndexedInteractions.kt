@@ -0,0 +1,55 @@
+package au.com.dius.pact.model
+
+import java.util.function.Predicate
+import java.util.function.Supplier
+
+/**
+ * Interaction from an indexed pact file. The description and provider states are read from the index, and the
+ * interaction is only loaded from the file when anything else about it is needed.
+ */
+class IndexedInteraction<out I : Interaction>(
+  override val description: String,
+  override val providerStates: List<ProviderState>,
+  loader: Supplier<I>
+) : Interaction {
+
+  /**
+   * The interaction loaded from the file
+   */
+  val interaction: I by lazy { loader.get() }
+
+  @Suppress("OverridingDeprecatedMember")
+  override val providerState: String
+    get() = interaction.providerState
+
+  override fun conflictsWith(other: Interaction) = interaction.conflictsWith(other)
+
+  override fun toMap(pactSpecVersion: PactSpecVersion) = interaction.toMap(pactSpecVersion)
+
+  override fun uniqueKey() = interaction.uniqueKey()
+
+  override fun toString() = "Interaction: $description"
+}
+
+/**
+ * Interactions of an indexed pact file, which are loaded from the file when they are first accessed. Filtering the
+ * interactions with [filter] only loads the interactions that the predicate selects, as the predicate is given the
+ * indexed interaction with the description and provider states.
+ */
+class IndexedInteractions<I : Interaction>(val indexed: List<IndexedInteraction<I>>) : AbstractList<I>(),
+  RandomAccess {
+  override val size: Int
+    get() = indexed.size
+
+  override fun get(index: Int) = indexed[index].interaction
+
+  /**
+   * Returns the interactions that the predicate selects
+   */
+  fun filter(predicate: Predicate<Interaction>) = indexed.filter { predicate.test(it) }.map { it.interaction }
+
+  /**
+   * If the predicate selects all the interactions
+   */
+  fun all(predicate: Predicate<Interaction>) = indexed.all { predicate.test(it) }
+}
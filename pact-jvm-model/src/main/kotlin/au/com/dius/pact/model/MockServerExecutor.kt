@@ -0,0 +1,22 @@
+package au.com.dius.pact.model
+
+/**
+ * How the mock server runs the requests it receives
+ */
+enum class MockServerExecutor {
+  /**
+   * On the thread of the HTTP server that accepts the connections, one request at a time
+   */
+  DISPATCHER,
+
+  /**
+   * On a fixed size pool of threads
+   */
+  FIXED_POOL,
+
+  /**
+   * On a new virtual thread for each request. Falls back to a fixed size pool of threads if the JVM does not support
+   * virtual threads
+   */
+  VIRTUAL_THREADS
+}
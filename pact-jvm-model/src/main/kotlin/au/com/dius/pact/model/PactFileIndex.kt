@@ -0,0 +1,224 @@
+package au.com.dius.pact.model
+
+import groovy.json.JsonSlurper
+import java.io.File
+import java.io.RandomAccessFile
+import java.nio.ByteBuffer
+import java.nio.channels.FileChannel
+
+/**
+ * Byte range of a JSON value in a pact file
+ */
+data class JsonSlice(val start: Int, val end: Int)
+
+/**
+ * Index of a pact file, with the byte range of each top level value and of each interaction or message. The file is
+ * memory mapped and scanned once to build the index without parsing it, so only the parts of the file that are read
+ * from the index are parsed.
+ */
+class PactFileIndex private constructor(private val buffer: ByteBuffer, private val members: Map<String, JsonSlice>) {
+
+  /**
+   * Interaction or message in the index, with the byte ranges of the values used to filter it
+   */
+  inner class Entry(val slice: JsonSlice, private val keys: Map<String, JsonSlice>) {
+    /**
+     * If the interaction has a value for the key
+     */
+    fun has(key: String) = keys.containsKey(key)
+
+    /**
+     * Parses the value of the key. Only the description and the provider state keys are indexed.
+     */
+    fun value(key: String) = keys[key]?.let { parse(it) }
+
+    /**
+     * Returns the JSON text of the interaction
+     */
+    fun text() = text(slice)
+  }
+
+  /**
+   * Parses the top level value with the name
+   */
+  fun value(name: String) = members[name]?.let { parse(it) }
+
+  /**
+   * Returns the entries of the top level array with the name, or null if there is no array with the name
+   */
+  fun entries(name: String): List<Entry>? {
+    val slice = members[name] ?: return null
+    val scanner = JsonScanner(buffer)
+    if (scanner.peek(slice.start) != '['.toByte()) {
+      return null
+    }
+    return scanner.elements(slice.start).map { element ->
+      if (scanner.peek(element.start) == '{'.toByte()) {
+        Entry(element, scanner.members(element.start).filterKeys { it in INDEXED_KEYS })
+      } else {
+        Entry(element, emptyMap())
+      }
+    }
+  }
+
+  fun text(slice: JsonSlice): String {
+    val bytes = ByteArray(slice.end - slice.start)
+    val view = buffer.duplicate()
+    view.position(slice.start)
+    view.get(bytes)
+    return String(bytes, Charsets.UTF_8)
+  }
+
+  private fun parse(slice: JsonSlice) = JsonSlurper().parseText(text(slice))
+
+  companion object {
+    private val INDEXED_KEYS = setOf("description", "providerState", "provider_state", "providerStates")
+
+    /**
+     * Maps the pact file into memory and indexes it
+     */
+    @JvmStatic
+    fun index(file: File): PactFileIndex {
+      val buffer = RandomAccessFile(file, "r").use {
+        it.channel.map(FileChannel.MapMode.READ_ONLY, 0, it.length())
+      }
+      val scanner = JsonScanner(buffer)
+      val start = scanner.skipWhitespace(0)
+      if (scanner.peek(start) != '{'.toByte()) {
+        throw InvalidPactException("Pact file $file does not contain a JSON object")
+      }
+      return PactFileIndex(buffer, scanner.members(start))
+    }
+  }
+}
+
+/**
+ * Finds the byte ranges of JSON values without parsing them
+ */
+private class JsonScanner(private val buffer: ByteBuffer) {
+  private val limit = buffer.limit()
+
+  fun peek(position: Int): Byte = if (position < limit) buffer.get(position) else invalid(position)
+
+  fun skipWhitespace(start: Int): Int {
+    var position = start
+    while (position < limit && buffer.get(position).toChar().isWhitespace()) {
+      position++
+    }
+    return position
+  }
+
+  /**
+   * Returns the keys and value ranges of the object that starts at the position
+   */
+  fun members(start: Int): Map<String, JsonSlice> {
+    val members = LinkedHashMap<String, JsonSlice>()
+    var position = skipWhitespace(start + 1)
+    if (peek(position) == '}'.toByte()) {
+      return members
+    }
+    while (true) {
+      val keyEnd = valueEnd(position)
+      val key = key(position, keyEnd)
+      position = skipWhitespace(keyEnd)
+      expect(position, ':')
+      val valueStart = skipWhitespace(position + 1)
+      val valueEnd = valueEnd(valueStart)
+      members[key] = JsonSlice(valueStart, valueEnd)
+      position = skipWhitespace(valueEnd)
+      if (peek(position) == '}'.toByte()) {
+        return members
+      }
+      expect(position, ',')
+      position = skipWhitespace(position + 1)
+    }
+  }
+
+  /**
+   * Returns the value ranges of the array that starts at the position
+   */
+  fun elements(start: Int): List<JsonSlice> {
+    val elements = mutableListOf<JsonSlice>()
+    var position = skipWhitespace(start + 1)
+    if (peek(position) == ']'.toByte()) {
+      return elements
+    }
+    while (true) {
+      val valueEnd = valueEnd(position)
+      elements.add(JsonSlice(position, valueEnd))
+      position = skipWhitespace(valueEnd)
+      if (peek(position) == ']'.toByte()) {
+        return elements
+      }
+      expect(position, ',')
+      position = skipWhitespace(position + 1)
+    }
+  }
+
+  /**
+   * Returns the position after the end of the value that starts at the position
+   */
+  fun valueEnd(start: Int): Int {
+    when (peek(start).toChar()) {
+      '"' -> return stringEnd(start)
+      '{', '[' -> {
+        var depth = 0
+        var position = start
+        while (true) {
+          when (peek(position).toChar()) {
+            '"' -> position = stringEnd(position) - 1
+            '{', '[' -> depth++
+            '}', ']' -> if (--depth == 0) {
+              return position + 1
+            }
+          }
+          position++
+        }
+      }
+      else -> {
+        var position = start
+        while (position < limit && buffer.get(position).toChar() !in LITERAL_END) {
+          position++
+        }
+        return if (position > start) position else invalid(start)
+      }
+    }
+  }
+
+  private fun stringEnd(start: Int): Int {
+    var position = start + 1
+    while (true) {
+      when (peek(position).toChar()) {
+        '\\' -> position++
+        '"' -> return position + 1
+      }
+      position++
+    }
+  }
+
+  private fun key(start: Int, end: Int): String {
+    if (peek(start) != '"'.toByte()) {
+      invalid(start)
+    }
+    val bytes = ByteArray(end - start)
+    val view = buffer.duplicate()
+    view.position(start)
+    view.get(bytes)
+    val text = String(bytes, Charsets.UTF_8)
+    return if (text.contains('\\')) JsonSlurper().parseText("[$text]").let { (it as List<*>).first().toString() }
+      else text.substring(1, text.length - 1)
+  }
+
+  private fun expect(position: Int, char: Char) {
+    if (peek(position) != char.toByte()) {
+      invalid(position)
+    }
+  }
+
+  private fun invalid(position: Int): Nothing =
+    throw InvalidPactException("Invalid JSON in pact file at byte $position")
+
+  companion object {
+    private val LITERAL_END = setOf(',', '}', ']', ' ', '\t', '\n', '\r')
+  }
+}
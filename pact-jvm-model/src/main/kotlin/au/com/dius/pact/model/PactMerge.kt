@@ -1,6 +1,5 @@
 package au.com.dius.pact.model
 
-import com.google.common.collect.Lists
 import mu.KLogging
 
 data class MergeResult(val ok: Boolean, val message: String, val result: Pact? = null)
@@ -20,9 +19,13 @@ object PactMerge : KLogging() {
       return MergeResult(true, "", existing)
     }
 
-    val conflicts = Lists.cartesianProduct(existing.interactions, newPact.interactions)
-      .map { it[0] to it[1] }
-      .filter { it.first.conflictsWith(it.second) }
+    // interactions can only conflict if they have the same unique key, so only those are compared
+    val newInteractions = newPact.interactions.groupBy { it.uniqueKey() }
+    val conflicts = existing.interactions.flatMap { interaction ->
+      newInteractions[interaction.uniqueKey()].orEmpty()
+        .filter { interaction.conflictsWith(it) }
+        .map { interaction to it }
+    }
     if (conflicts.isEmpty()) {
       existing.mergeInteractions(newPact.interactions)
       return MergeResult(true, "", existing)
@@ -31,4 +34,15 @@ object PactMerge : KLogging() {
         "between the interactions - ${conflicts.joinToString("\n")}")
     }
   }
+
+  /**
+   * Returns the interactions with the other interactions added, keeping the first interaction for each unique key
+   */
+  @JvmStatic
+  fun <T : Interaction> mergeUnique(interactions: List<T>, other: List<T>): List<T> {
+    val merged = LinkedHashMap<String, T>(interactions.size + other.size)
+    interactions.forEach { merged.putIfAbsent(it.uniqueKey(), it) }
+    other.forEach { merged.putIfAbsent(it.uniqueKey(), it) }
+    return ArrayList(merged.values)
+  }
 }
@@ -33,6 +33,8 @@ fun loadPactFromUrl(source: UrlPactSource, options: Map<String, Any>, http: REST
       } else {
         throw InvalidHttpResponseException("Received an invalid response from the HTTP client: $response")
       }
+    } else if (PactUrlCache.enabled() && PactUrlCache.canCache(source.url)) {
+      return PactUrlCache.load(source.url) to source
     } else {
       return JsonSlurper().parse(URL(source.url), ACCEPT_JSON) to source
     }
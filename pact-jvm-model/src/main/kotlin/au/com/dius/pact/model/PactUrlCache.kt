@@ -0,0 +1,145 @@
+package au.com.dius.pact.model
+
+import groovy.json.JsonSlurper
+import mu.KLogging
+import java.io.File
+import java.io.IOException
+import java.net.HttpURLConnection
+import java.net.URL
+import java.nio.file.Files
+import java.nio.file.StandardCopyOption
+import java.security.MessageDigest
+import java.util.Properties
+
+data class PactNotCachedException(override val message: String) : RuntimeException(message)
+
+/**
+ * On-disk cache of pacts loaded from HTTP URLs. The cache is enabled by setting the `pact.reader.cacheDir` system
+ * property to the directory to store the pacts in. Each pact is stored with its ETag and Last-Modified headers, and a
+ * cached pact is revalidated with a conditional request, so the pact is only downloaded again when it has changed.
+ *
+ * Setting the `pact.reader.offline` system property to `true` loads the cached pacts without any requests.
+ */
+object PactUrlCache : KLogging() {
+  const val CACHE_DIR_PROPERTY = "pact.reader.cacheDir"
+  const val OFFLINE_PROPERTY = "pact.reader.offline"
+
+  private const val URL_KEY = "url"
+  private const val ETAG_KEY = "etag"
+  private const val LAST_MODIFIED_KEY = "lastModified"
+
+  /**
+   * If pacts loaded from HTTP URLs are cached
+   */
+  @JvmStatic
+  fun enabled() = System.getProperty(CACHE_DIR_PROPERTY) != null
+
+  /**
+   * If the cached pacts are loaded without revalidating them
+   */
+  @JvmStatic
+  fun offline() = System.getProperty(OFFLINE_PROPERTY)?.toBoolean() ?: false
+
+  /**
+   * If the pact at the URL can be cached
+   */
+  @JvmStatic
+  fun canCache(url: String) = url.startsWith("http://", true) || url.startsWith("https://", true)
+
+  /**
+   * Loads the pact JSON from the URL through the cache directory set with the system properties
+   */
+  @JvmStatic
+  fun load(url: String) = load(url, File(System.getProperty(CACHE_DIR_PROPERTY)), offline())
+
+  /**
+   * Loads the pact JSON from the URL through the cache directory. A cached pact is revalidated unless offline is
+   * set, and is also used if the request to revalidate it fails.
+   */
+  @JvmStatic
+  fun load(url: String, cacheDir: File, offline: Boolean): Any {
+    val key = cacheKey(url)
+    val pactFile = File(cacheDir, "$key.json")
+    val infoFile = File(cacheDir, "$key.properties")
+    val info = if (pactFile.exists() && infoFile.exists()) readInfo(infoFile) else null
+
+    if (offline) {
+      if (info == null) {
+        throw PactNotCachedException("There is no cached copy of the pact at $url to load offline")
+      }
+      logger.debug { "Loading the cached pact for $url" }
+      return parse(pactFile)
+    }
+
+    val connection = URL(url).openConnection() as HttpURLConnection
+    try {
+      connection.setRequestProperty("Accept", "application/json")
+      info?.getProperty(ETAG_KEY)?.let { connection.setRequestProperty("If-None-Match", it) }
+      info?.getProperty(LAST_MODIFIED_KEY)?.let { connection.setRequestProperty("If-Modified-Since", it) }
+
+      val status = try {
+        connection.responseCode
+      } catch (e: IOException) {
+        if (info == null) {
+          throw e
+        }
+        logger.warn(e) { "Failed to revalidate the cached pact for $url, using the cached copy" }
+        return parse(pactFile)
+      }
+
+      if (status == HttpURLConnection.HTTP_NOT_MODIFIED && info != null) {
+        logger.debug { "The cached pact for $url has not changed" }
+        return parse(pactFile)
+      } else if (status !in 200..299) {
+        throw InvalidHttpResponseException("Failed to load the pact from $url - $status ${connection.responseMessage}")
+      }
+
+      val body = connection.inputStream.use { it.readBytes() }
+      store(cacheDir, pactFile, infoFile, body, url, connection.getHeaderField("ETag"),
+        connection.getHeaderField("Last-Modified"))
+      return JsonSlurper().parseText(body.toString(Charsets.UTF_8))
+    } finally {
+      connection.disconnect()
+    }
+  }
+
+  private fun store(cacheDir: File, pactFile: File, infoFile: File, body: ByteArray, url: String, etag: String?,
+                    lastModified: String?) {
+    if (etag == null && lastModified == null) {
+      logger.debug { "Not caching the pact for $url as the response has no ETag or Last-Modified header" }
+      return
+    }
+    try {
+      cacheDir.mkdirs()
+      val info = Properties()
+      info.setProperty(URL_KEY, url)
+      etag?.let { info.setProperty(ETAG_KEY, it) }
+      lastModified?.let { info.setProperty(LAST_MODIFIED_KEY, it) }
+      // written to temporary files and moved into place, so other builds never read a partly written pact
+      val tempPact = File.createTempFile(pactFile.nameWithoutExtension, ".tmp", cacheDir)
+      tempPact.writeBytes(body)
+      val tempInfo = File.createTempFile(infoFile.nameWithoutExtension, ".tmp", cacheDir)
+      tempInfo.outputStream().use { info.store(it, null) }
+      Files.move(tempPact.toPath(), pactFile.toPath(), StandardCopyOption.REPLACE_EXISTING,
+        StandardCopyOption.ATOMIC_MOVE)
+      Files.move(tempInfo.toPath(), infoFile.toPath(), StandardCopyOption.REPLACE_EXISTING,
+        StandardCopyOption.ATOMIC_MOVE)
+    } catch (e: IOException) {
+      logger.warn(e) { "Failed to cache the pact for $url" }
+    }
+  }
+
+  private fun readInfo(infoFile: File): Properties? = try {
+    val info = Properties()
+    infoFile.inputStream().use { info.load(it) }
+    info
+  } catch (e: IOException) {
+    logger.warn(e) { "Failed to read the cache info file $infoFile, ignoring it" }
+    null
+  }
+
+  private fun parse(pactFile: File) = JsonSlurper().parseText(pactFile.readText())
+
+  private fun cacheKey(url: String) = MessageDigest.getInstance("SHA-256").digest(url.toByteArray())
+    .joinToString("") { String.format("%02x", it) }
+}
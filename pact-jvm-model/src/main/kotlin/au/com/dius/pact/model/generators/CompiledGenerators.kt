@@ -0,0 +1,181 @@
+package au.com.dius.pact.model.generators
+
+import au.com.dius.pact.model.ContentType
+import au.com.dius.pact.model.OptionalBody
+import au.com.dius.pact.model.PathToken
+import au.com.dius.pact.model.parsePath
+import groovy.json.JsonOutput
+import groovy.json.JsonSlurper
+import mu.KLogging
+import java.io.ByteArrayOutputStream
+import java.util.UUID
+
+/**
+ * Generators prepared to be applied many times to the same part. The generators of each category are looked up once,
+ * the automata of the regex generators are built when the generators are compiled, and body templates parse the path
+ * expressions of the body generators once.
+ */
+class CompiledGenerators(private val generators: Generators) {
+  val statusGenerators = generators(Category.STATUS)
+  val headerGenerators = generators(Category.HEADER)
+  val bodyGenerators = generators(Category.BODY)
+
+  /**
+   * If there are no generators for the status, headers or body
+   */
+  fun isEmpty() = statusGenerators.isEmpty() && headerGenerators.isEmpty() && bodyGenerators.isEmpty()
+
+  /**
+   * Returns a template to render the body with the body generators applied. A JSON body is split into the parts that
+   * do not change and the slots the generators fill in, so rendering the body only has to generate the values for the
+   * slots. Bodies that can not be split are parsed once, and each render copies the parsed body and applies the
+   * generators to the copy.
+   *
+   * Bodies that fail to parse are rendered with [Generators.applyBodyGenerators] each time, so the error is thrown when
+   * the body is rendered, as it would be without compiling the generators.
+   */
+  fun bodyTemplate(body: OptionalBody, contentType: ContentType): BodyTemplate {
+    try {
+      if (bodyGenerators.isEmpty()) {
+        return StaticBody(toBytes(generators.applyBodyGenerators(body, contentType)))
+      } else if (body.isPresent() && contentType.isJson() &&
+        contentTypeHandlers["application/json"] == JsonContentTypeHandler) {
+        val json = JsonSlurper().parseText(body.value)
+        if (json != null) {
+          val paths = bodyGenerators.map { (key, generator) -> parsePath(key) to generator }
+          return SlottedJsonBody.split(json, paths) ?: JsonTreeBody(json, paths)
+        }
+      }
+    } catch (e: Exception) {
+      logger.debug(e) { "Could not compile the body generators, they will be applied to the body each time" }
+    }
+    return GeneratedBody(generators, body, contentType)
+  }
+
+  private fun generators(category: Category): List<Pair<String, Generator>> {
+    val generators = mutableListOf<Pair<String, Generator>>()
+    this.generators.applyGenerator(category) { key, generator ->
+      if (generator is RegexGenerator) {
+        generator.prepare()
+      }
+      if (generator != null) {
+        generators.add(key to generator)
+      }
+    }
+    return generators
+  }
+
+  companion object : KLogging() {
+    private fun toBytes(body: OptionalBody) = if (body.isPresent()) body.unwrap().toByteArray() else null
+  }
+}
+
+/**
+ * Renders a body with the generators applied, as bytes. Returns null if there is no body
+ */
+interface BodyTemplate {
+  fun render(): ByteArray?
+}
+
+private class StaticBody(private val body: ByteArray?) : BodyTemplate {
+  override fun render() = body
+}
+
+private class GeneratedBody(private val generators: Generators, private val body: OptionalBody,
+                            private val contentType: ContentType) : BodyTemplate {
+  override fun render(): ByteArray? {
+    val generated = generators.applyBodyGenerators(body, contentType)
+    return if (generated.isPresent()) generated.unwrap().toByteArray() else null
+  }
+}
+
+/**
+ * JSON body parsed once. Each render applies the generators to a copy of it
+ */
+private class JsonTreeBody(private val json: Any, private val paths: List<Pair<List<PathToken>, Generator>>)
+  : BodyTemplate {
+  override fun render(): ByteArray? {
+    val body = QueryResult(copyJson(json)!!)
+    paths.forEach { (path, generator) -> JsonContentTypeHandler.applyPath(body, path, generator) }
+    return JsonOutput.toJson(body.value).toByteArray()
+  }
+}
+
+/**
+ * JSON body split into the serialised parts that do not change, with a slot between each of them for a generated
+ * value. The generators are given the values from the body that the slots replace.
+ */
+private class SlottedJsonBody(private val segments: List<ByteArray>, private val slots: List<Pair<Any?, Generator>>)
+  : BodyTemplate {
+  private val staticSize = segments.sumBy { it.size }
+
+  override fun render(): ByteArray? {
+    val out = ByteArrayOutputStream(staticSize + slots.size * 16)
+    out.write(segments[0])
+    slots.forEachIndexed { index, (value, generator) ->
+      out.write(JsonOutput.toJson(generator.generate(value)).toByteArray())
+      out.write(segments[index + 1])
+    }
+    return out.toByteArray()
+  }
+
+  companion object {
+    /**
+     * Splits the body at the values the generators apply to, by replacing each value with a marker, serialising the
+     * body and splitting it at the markers. Returns null when the values of two generators overlap, as the generators
+     * then have to be applied one after the other.
+     */
+    fun split(json: Any, paths: List<Pair<List<PathToken>, Generator>>): SlottedJsonBody? {
+      val body = QueryResult(copyJson(json)!!)
+      val markerPrefix = "pact-generator-slot-${UUID.randomUUID()}-"
+      val slots = LinkedHashMap<String, Pair<Any?, Generator>>()
+      var overlaps = false
+      paths.forEach { (path, generator) ->
+        JsonContentTypeHandler.queryObjectGraph(path.iterator(), body) { (value, valueKey, parent) ->
+          if (containsMarker(value, markerPrefix)) {
+            overlaps = true
+          }
+          val marker = markerPrefix + slots.size
+          slots[marker] = value to generator
+          @Suppress("UNCHECKED_CAST")
+          when (parent) {
+            is MutableMap<*, *> -> (parent as MutableMap<String, Any>)[valueKey.toString()] = marker
+            is MutableList<*> -> (parent as MutableList<Any>)[valueKey as Int] = marker
+            else -> body.value = marker
+          }
+        }
+      }
+      if (overlaps) {
+        return null
+      }
+
+      val serialised = JsonOutput.toJson(body.value)
+      val positions = slots.keys.map { marker -> serialised.indexOf(JsonOutput.toJson(marker)) to marker }
+        .sortedBy { it.first }
+      if (positions.any { it.first < 0 }) {
+        return null
+      }
+      val segments = mutableListOf<ByteArray>()
+      var start = 0
+      positions.forEach { (position, marker) ->
+        segments.add(serialised.substring(start, position).toByteArray())
+        start = position + JsonOutput.toJson(marker).length
+      }
+      segments.add(serialised.substring(start).toByteArray())
+      return SlottedJsonBody(segments, positions.map { slots[it.second]!! })
+    }
+
+    private fun containsMarker(value: Any?, markerPrefix: String): Boolean = when (value) {
+      is String -> value.startsWith(markerPrefix)
+      is Map<*, *> -> value.values.any { containsMarker(it, markerPrefix) }
+      is List<*> -> value.any { containsMarker(it, markerPrefix) }
+      else -> false
+    }
+  }
+}
+
+private fun copyJson(value: Any?): Any? = when (value) {
+  is Map<*, *> -> value.entries.associateTo(LinkedHashMap<Any?, Any?>()) { it.key to copyJson(it.value) }
+  is List<*> -> value.mapTo(ArrayList<Any?>(value.size)) { copyJson(it) }
+  else -> value
+}
@@ -139,7 +139,21 @@ data class RegexGenerator(val regex: String) : Generator {
     return mapOf("type" to "Regex", "regex" to regex)
   }
 
-  override fun generate(base: Any?): Any = Generex(regex).random()
+  // the automaton for the regex is expensive to build, so it is built once and shared by all the threads the
+  // generator is used on. Generex is not thread safe, so values are generated while holding its lock
+  private val generex = lazy { Generex(regex) }
+
+  override fun generate(base: Any?): Any {
+    val generex = this.generex.value
+    return synchronized(generex) { generex.random() }
+  }
+
+  /**
+   * Builds the automaton for the regex, so it is not built when the first value is generated
+   */
+  fun prepare() {
+    generex.value
+  }
 
   companion object {
     fun fromMap(map: Map<String, Any>) = RegexGenerator(map["regex"]!! as String)
@@ -39,8 +39,14 @@ object JsonContentTypeHandler : ContentTypeHandler {
   }
 
   override fun applyKey(body: QueryResult, key: String, generator: Generator) {
-    val pathExp = parsePath(key)
-    queryObjectGraph(pathExp.iterator(), body) { (value, valueKey, parent) ->
+    applyPath(body, parsePath(key), generator)
+  }
+
+  /**
+   * Applies the generator to the values at the parsed path expression
+   */
+  fun applyPath(body: QueryResult, path: List<PathToken>, generator: Generator) {
+    queryObjectGraph(path.iterator(), body) { (value, valueKey, parent) ->
       @Suppress("UNCHECKED_CAST")
       when (parent) {
         is MutableMap<*, *> -> (parent as MutableMap<String, Any>)[valueKey.toString()] = generator.generate(value)
@@ -50,7 +56,7 @@ object JsonContentTypeHandler : ContentTypeHandler {
     }
   }
 
-  private fun queryObjectGraph(pathExp: Iterator<PathToken>, body: QueryResult, fn: (QueryResult) -> Unit) {
+  internal fun queryObjectGraph(pathExp: Iterator<PathToken>, body: QueryResult, fn: (QueryResult) -> Unit) {
     var bodyCursor = body
     while (pathExp.hasNext()) {
       val token = pathExp.next()
@@ -200,6 +206,11 @@ data class Generators(val categories: MutableMap<Category, MutableMap<String, Ge
     } ?: OptionalBody.body(value)
   }
 
+  /**
+   * Returns the generators prepared to be applied many times, see [CompiledGenerators]
+   */
+  fun compile() = CompiledGenerators(this)
+
   /**
    * If there are no generators
    */
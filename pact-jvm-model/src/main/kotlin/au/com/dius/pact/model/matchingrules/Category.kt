@@ -14,7 +14,16 @@ data class Category @JvmOverloads constructor(val name: String,
 
   companion object : KLogging()
 
+  /**
+   * Number of times the rules have been changed through this category, so compiled forms of the rules can check in
+   * constant time if they are still current
+   */
+  @Volatile
+  var modificationCount = 0
+    private set
+
   fun addRule(item: String, matchingRule: MatchingRule) {
+    modificationCount++
     if (!matchingRules.containsKey(item)) {
       matchingRules[item] = MatchingRuleGroup(mutableListOf(matchingRule))
     } else {
@@ -25,6 +34,7 @@ data class Category @JvmOverloads constructor(val name: String,
   fun addRule(matchingRule: MatchingRule) = addRule("", matchingRule)
 
   fun setRule(item: String, matchingRule: MatchingRule) {
+    modificationCount++
     matchingRules[item] = MatchingRuleGroup(mutableListOf(matchingRule))
   }
 
@@ -37,9 +47,18 @@ data class Category @JvmOverloads constructor(val name: String,
   fun setRules(matchingRules: List<MatchingRule>) = setRules("", matchingRules)
 
   fun setRules(item: String, rules: MatchingRuleGroup) {
+    modificationCount++
     matchingRules[item] = rules
   }
 
+  /**
+   * Removes the rules for the item
+   */
+  fun removeRules(item: String) {
+    modificationCount++
+    matchingRules.remove(item)
+  }
+
   /**
    * If the rules are empty
    */
@@ -65,6 +84,7 @@ data class Category @JvmOverloads constructor(val name: String,
   fun allMatchingRules() = matchingRules.flatMap { it.value.rules }
 
   fun addRules(item: String, rules: List<MatchingRule>) {
+    modificationCount++
     if (!matchingRules.containsKey(item)) {
       matchingRules[item] = MatchingRuleGroup(rules.toMutableList())
     } else {
@@ -73,6 +93,7 @@ data class Category @JvmOverloads constructor(val name: String,
   }
 
   fun applyMatcherRootPrefix(prefix: String) {
+    modificationCount++
     matchingRules = matchingRules.mapKeys { e -> prefix + e.key }.toMutableMap()
   }
 
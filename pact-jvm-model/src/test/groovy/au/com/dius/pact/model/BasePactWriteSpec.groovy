@@ -0,0 +1,73 @@
+package au.com.dius.pact.model
+
+import groovy.json.JsonOutput
+import spock.lang.Specification
+
+class BasePactWriteSpec extends Specification {
+
+  private static final String NON_ASCII_DESCRIPTION = 'existing interaction: \u00e0\u00e9\u00ef\u00f5\u00fc'
+
+  private File pactDir
+
+  def setup() {
+    pactDir = File.createTempDir()
+  }
+
+  def cleanup() {
+    pactDir.deleteDir()
+  }
+
+  private static RequestResponsePact pactWith(String... descriptions) {
+    new RequestResponsePact(new Provider('write_provider'), new Consumer('write_consumer'), descriptions.collect {
+      new RequestResponseInteraction(it, [], new Request('GET', '/' + it.size(), [:], [:],
+        OptionalBody.body('{"a": [1, {"b": "c"}], "d": {}, "e": []}')),
+        new Response(200, ['Content-Type': 'application/json'], OptionalBody.body('{"value": "\\"quoted\\""}')))
+    })
+  }
+
+  private static String prettyPrinted(RequestResponsePact pact) {
+    def map = pact.toMap(PactSpecVersion.V3)
+    map.metadata = BasePact.DEFAULT_METADATA + map.metadata
+    JsonOutput.prettyPrint(JsonOutput.toJson(map))
+  }
+
+  def 'writes the pact in the same format as JsonOutput.prettyPrint'() {
+    given:
+    def pact = pactWith('first interaction', 'second')
+
+    when:
+    pact.write(pactDir.toString(), PactSpecVersion.V3)
+
+    then:
+    pact.fileForPact(pactDir.toString()).getText('UTF-8') == prettyPrinted(pact)
+  }
+
+  def 'merges the interactions with the existing pact file'() {
+    given:
+    def existing = pactWith(NON_ASCII_DESCRIPTION)
+    existing.write(pactDir.toString(), PactSpecVersion.V3)
+    def pact = pactWith('new')
+
+    when:
+    pact.write(pactDir.toString(), PactSpecVersion.V3)
+    def written = PactReader.loadPact(pact.fileForPact(pactDir.toString()))
+
+    then:
+    written.interactions*.description.toSet() == [NON_ASCII_DESCRIPTION, 'new'].toSet()
+    pact.fileForPact(pactDir.toString()).getText('UTF-8') == prettyPrinted(pact)
+  }
+
+  def 'truncates the file when the merged pact is shorter'() {
+    given:
+    def file = pactWith('write').fileForPact(pactDir.toString())
+    file.write(prettyPrinted(pactWith('write')) + ' ' * 1000, 'UTF-8')
+    def pact = pactWith('write')
+
+    when:
+    pact.write(pactDir.toString(), PactSpecVersion.V3)
+
+    then:
+    file.getText('UTF-8') == prettyPrinted(pact)
+  }
+
+}
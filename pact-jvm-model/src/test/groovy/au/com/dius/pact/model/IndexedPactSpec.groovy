@@ -0,0 +1,74 @@
+package au.com.dius.pact.model
+
+import spock.lang.Specification
+import spock.lang.Unroll
+
+import java.util.function.Predicate
+
+class IndexedPactSpec extends Specification {
+
+  @Unroll
+  def 'loads the same pact through the index for #file'() {
+    given:
+    def pactFile = new File(IndexedPactSpec.classLoader.getResource(file).toURI())
+
+    when:
+    def indexed = PactReader.loadIndexedPact(new FileSource(pactFile))
+
+    then:
+    indexed.interactions instanceof IndexedInteractions
+    indexed == PactReader.loadPact(pactFile)
+    indexed.source == new FileSource(pactFile)
+
+    where:
+    file << ['pact.json', 'v2-pact.json', 'v3-pact.json', 'v3-message-pact.json', 'test_pact_with_bodies.json',
+             'test_pact_v3_old_provider_state.json', 'test_pact_lowercase_method.json', 'test_pact_generators.json']
+  }
+
+  def 'only loads the interactions that a filter selects'() {
+    given:
+    def pactFile = File.createTempFile('indexed-pact', '.json')
+    pactFile.deleteOnExit()
+    pactFile.text = '''{
+      "provider": {"name": "provider"},
+      "consumer": {"name": "consumer"},
+      "interactions": [
+        {
+          "description": "first",
+          "providerStates": [{"name": "state 1"}],
+          "request": {"method": "GET", "path": "/1"},
+          "response": {"status": 200}
+        },
+        {
+          "description": "second \\"interaction\\" [with brackets}",
+          "providerStates": [{"name": "state 2"}],
+          "request": {"method": "GET", "path": "/2", "body": not-valid-json},
+          "response": {"status": 200}
+        }
+      ],
+      "metadata": {"pact-specification": {"version": "3.0.0"}}
+    }'''
+
+    when:
+    def pact = PactReader.loadIndexedPact(new FileSource(pactFile))
+    def filtered = new FilteredPact(pact, { it.providerStates*.name == ['state 1'] } as Predicate)
+
+    then:
+    pact.interactions.indexed*.description == ['first', 'second "interaction" [with brackets}']
+    filtered.interactions*.request*.path == ['/1']
+    !filtered.isNotFiltered()
+  }
+
+  def 'throws an exception if the pact file is not a JSON object'() {
+    given:
+    def pactFile = File.createTempFile('indexed-pact', '.json')
+    pactFile.deleteOnExit()
+    pactFile.text = '[]'
+
+    when:
+    PactReader.loadIndexedPact(new FileSource(pactFile))
+
+    then:
+    thrown(InvalidPactException)
+  }
+}
@@ -188,6 +188,32 @@ class PactMergeSpec extends Specification {
     result = PactMerge.merge(newPact, existingPact)
   }
 
+  def 'pact merge keeps the existing interactions and sorts the merged interactions'() {
+    given:
+    def existingPact = new RequestResponsePact(provider, consumer, (0..<1000).collect {
+      new RequestResponseInteraction("interaction $it", [new ProviderState("state ${it % 10}")], new Request(),
+        new Response())
+    })
+    def newPact = new RequestResponsePact(provider, consumer, (500..<1500).collect {
+      new RequestResponseInteraction("interaction $it", [new ProviderState("state ${it % 10}")], new Request('POST'),
+        new Response())
+    })
+
+    when:
+    def result = PactMerge.merge(newPact, existingPact)
+
+    then:
+    result.ok
+    result.result.interactions.size() == 1500
+    result.result.interactions.findAll { it.description.replaceAll(/\D/, '').toInteger() < 1000 }
+      .every { it.request.method == 'GET' }
+    result.result.interactions.findAll { it.description.replaceAll(/\D/, '').toInteger() >= 1000 }
+      .every { it.request.method == 'POST' }
+    result.result.interactions*.uniqueKey() == result.result.interactions*.uniqueKey().unique(false)
+    result.result.interactions.collect { it.providerState + it.description } ==
+      result.result.interactions.collect { it.providerState + it.description }.sort(false)
+  }
+
   @Unroll
   def 'Pact merge should allow different descriptions for #type'() {
     expect:
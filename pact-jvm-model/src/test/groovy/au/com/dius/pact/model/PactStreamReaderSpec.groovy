@@ -0,0 +1,71 @@
+package au.com.dius.pact.model
+
+import groovy.json.JsonOutput
+import groovy.json.JsonSlurper
+import spock.lang.Specification
+import spock.lang.Unroll
+
+class PactStreamReaderSpec extends Specification {
+
+  @Unroll
+  def 'reads the same pact as the parsed JSON for #file'() {
+    given:
+    def resource = PactStreamReaderSpec.classLoader.getResource(file)
+    def pactJson = new JsonSlurper().parse(resource)
+    def streamedJson = new InputStreamReader(resource.openStream(), 'UTF-8').withReader {
+      PactStreamReader.readPactJson(it)
+    }
+
+    expect:
+    loadPact(streamedJson) == loadPact(pactJson)
+
+    where:
+    file << ['pact.json', 'v1-pact.json', 'v2-pact.json', 'v3-pact.json', 'v3-message-pact.json',
+             'v3-message-pact-generators.json', 'test_pact_with_bodies.json', 'test_pact_with_string_body.json',
+             'test_pact_no_bodies.json', 'test_pact_lowercase_method.json', 'test_pact_matchers_old_format.json',
+             'test_pact_query_old_format.json', 'test_pact_v3_old_provider_state.json', 'test_pact_generators.json',
+             'v2_pact_query.json']
+  }
+
+  def 'renames the V2 keys of the interactions'() {
+    given:
+    def json = '''{
+      "interactions": [{
+        "description": "test",
+        "provider_state": "state",
+        "request": {"method": "post", "path": "/", "requestMatchingRules": {"$.body.a": {"match": "type"}}},
+        "response": {"status": 200, "responseMatchingRules": {"$.body.b": {"match": "type"}}}
+      }]
+    }'''
+
+    when:
+    def pactJson = PactStreamReader.readPactJson(new StringReader(json))
+    def interaction = pactJson.interactions.first()
+
+    then:
+    interaction.providerState == 'state'
+    !interaction.containsKey('provider_state')
+    interaction.request == [method: 'POST', path: '/', matchingRules: ['$.body.a': [match: 'type']]]
+    interaction.response == [status: 200, matchingRules: ['$.body.b': [match: 'type']]]
+  }
+
+  def 'copies the bodies as JSON text formatted the same as JsonOutput'() {
+    given:
+    def body = '{"a": 1.50, "b": [1, 2e3, 12345678901], "c": "café \\"quoted\\"", "d": null, "e": true}'
+    def json = """{"interactions": [{"description": "test", "request": {"body": $body}, "response": {}}]}"""
+
+    when:
+    def pactJson = PactStreamReader.readPactJson(new StringReader(json))
+
+    then:
+    pactJson.interactions.first().request.body == JsonOutput.toJson(new JsonSlurper().parseText(body))
+  }
+
+  private static Pact loadPact(def pactJson) {
+    if (pactJson.metadata?.'pact-specification'?.version?.startsWith('3')) {
+      PactReader.loadV3Pact(null, pactJson)
+    } else {
+      PactReader.loadV2Pact(null, pactJson)
+    }
+  }
+}
@@ -0,0 +1,113 @@
+package au.com.dius.pact.model
+
+import com.sun.net.httpserver.HttpServer
+import spock.lang.Specification
+
+import java.nio.file.Files
+
+class PactUrlCacheSpec extends Specification {
+
+  private static final String PACT = '{"provider": {"name": "provider"}, "consumer": {"name": "consumer"}}'
+
+  private HttpServer server
+  private File cacheDir
+  private String url
+  private List<Map> requests
+  private String etag
+
+  def setup() {
+    cacheDir = Files.createTempDirectory('pact-cache').toFile()
+    requests = []
+    etag = '"1"'
+    server = HttpServer.create(new InetSocketAddress('localhost', 0), 0)
+    server.createContext('/pact') { exchange ->
+      def ifNoneMatch = exchange.requestHeaders.getFirst('If-None-Match')
+      requests << [ifNoneMatch: ifNoneMatch]
+      exchange.responseHeaders.add('ETag', etag)
+      if (ifNoneMatch == etag) {
+        exchange.sendResponseHeaders(304, -1)
+      } else {
+        def body = PACT.bytes
+        exchange.responseHeaders.add('Content-Type', 'application/json')
+        exchange.sendResponseHeaders(200, body.length)
+        exchange.responseBody.write(body)
+      }
+      exchange.close()
+    }
+    server.start()
+    url = "http://localhost:${server.address.port}/pact"
+  }
+
+  def cleanup() {
+    server.stop(0)
+    cacheDir.deleteDir()
+  }
+
+  def 'downloads the pact and caches it'() {
+    when:
+    def pactJson = PactUrlCache.load(url, cacheDir, false)
+
+    then:
+    pactJson.provider.name == 'provider'
+    requests == [[ifNoneMatch: null]]
+    cacheDir.listFiles()*.name.findAll { it.endsWith('.json') }.size() == 1
+  }
+
+  def 'revalidates the cached pact with the ETag'() {
+    given:
+    PactUrlCache.load(url, cacheDir, false)
+
+    when:
+    def pactJson = PactUrlCache.load(url, cacheDir, false)
+
+    then:
+    pactJson.provider.name == 'provider'
+    requests == [[ifNoneMatch: null], [ifNoneMatch: '"1"']]
+  }
+
+  def 'downloads the pact again when it has changed'() {
+    given:
+    PactUrlCache.load(url, cacheDir, false)
+    etag = '"2"'
+
+    when:
+    PactUrlCache.load(url, cacheDir, false)
+    PactUrlCache.load(url, cacheDir, false)
+
+    then:
+    requests == [[ifNoneMatch: null], [ifNoneMatch: '"1"'], [ifNoneMatch: '"2"']]
+  }
+
+  def 'loads the cached pact without a request when offline'() {
+    given:
+    PactUrlCache.load(url, cacheDir, false)
+
+    when:
+    def pactJson = PactUrlCache.load(url, cacheDir, true)
+
+    then:
+    pactJson.consumer.name == 'consumer'
+    requests.size() == 1
+  }
+
+  def 'uses the cached pact if the server can not be reached'() {
+    given:
+    PactUrlCache.load(url, cacheDir, false)
+    server.stop(0)
+
+    when:
+    def pactJson = PactUrlCache.load(url, cacheDir, false)
+
+    then:
+    pactJson.consumer.name == 'consumer'
+  }
+
+  def 'throws an exception when offline and the pact is not cached'() {
+    when:
+    PactUrlCache.load(url, cacheDir, true)
+
+    then:
+    thrown(PactNotCachedException)
+    requests.empty
+  }
+}
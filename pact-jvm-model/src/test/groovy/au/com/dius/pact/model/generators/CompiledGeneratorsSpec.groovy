@@ -0,0 +1,126 @@
+package au.com.dius.pact.model.generators
+
+import au.com.dius.pact.model.ContentType
+import au.com.dius.pact.model.OptionalBody
+import spock.lang.Specification
+import spock.lang.Unroll
+
+import java.util.concurrent.Callable
+import java.util.concurrent.Executors
+
+class CompiledGeneratorsSpec extends Specification {
+
+  private static final ContentType JSON = new ContentType('application/json')
+
+  private static String render(BodyTemplate template) {
+    new String(template.render(), 'UTF-8')
+  }
+
+  @Unroll
+  def 'renders the same body as applying the generators - #description'() {
+    given:
+    def generators = new Generators()
+    keys.eachWithIndex { key, i -> generators.addGenerator(Category.BODY, key, { "X$i".toString() } as Generator) }
+    def body = OptionalBody.body(json)
+
+    expect:
+    render(generators.compile().bodyTemplate(body, JSON)) == generators.applyBodyGenerators(body, JSON).value
+
+    where:
+
+    description              | json                                                 | keys
+    'no generators'          | '{"a": 1, "b": [1, 2]}'                              | []
+    'map entry'              | '{"a": 1, "b": "B"}'                                 | ['$.b']
+    'list item'              | '[1, 2, 3]'                                          | ['$[1]']
+    'nested values'          | '{"a": {"b": [1, {"c": "C"}]}, "d": "D"}'            | ['$.a.b[1].c', '$.d']
+    'all map entries'        | '{"a": {"x": 1, "y": 2, "z": 3}}'                    | ['$.a.*']
+    'all list items'         | '{"a": [{"b": 1}, {"b": 2}]}'                        | ['$.a[*].b']
+    'missing value'          | '{"a": 1}'                                           | ['$.b']
+    'root'                   | '{"a": 1}'                                           | ['$']
+    'same value twice'       | '{"a": 1, "b": 2}'                                   | ['$.a', '$[\'a\']']
+    'value and its parent'   | '{"a": {"b": 1}}'                                    | ['$.a.b', '$.a']
+    'parent and its value'   | '{"a": {"b": 1}}'                                    | ['$.a', '$.a.b']
+    'escaped values'         | '{"a": "line\\nbreak \\"quoted\\"", "b": "\\u00e9"}' | ['$.b']
+  }
+
+  def 'passes the value from the body to the generator'() {
+    given:
+    def generators = new Generators()
+    generators.addGenerator(Category.BODY, '$.a', { base -> base * 2 } as Generator)
+
+    expect:
+    render(generators.compile().bodyTemplate(OptionalBody.body('{"a": 21}'), JSON)) == '{"a":42}'
+  }
+
+  def 'generates new values each time the body is rendered'() {
+    given:
+    def generators = new Generators()
+    generators.addGenerator(Category.BODY, '$.a', new UuidGenerator())
+    def template = generators.compile().bodyTemplate(OptionalBody.body('{"a": "A"}'), JSON)
+
+    expect:
+    render(template) != render(template)
+  }
+
+  def 'bodies that can not be parsed fail when they are rendered'() {
+    given:
+    def generators = new Generators()
+    generators.addGenerator(Category.BODY, '$.a', new UuidGenerator())
+    def template = generators.compile().bodyTemplate(OptionalBody.body('{"a": '), JSON)
+
+    when:
+    template.render()
+
+    then:
+    thrown(Exception)
+  }
+
+  def 'returns no body for a missing body'() {
+    given:
+    def generators = new Generators()
+    generators.addGenerator(Category.BODY, '$.a', new UuidGenerator())
+
+    expect:
+    generators.compile().bodyTemplate(OptionalBody.missing(), JSON).render() == null
+  }
+
+  def 'looks up the generators for the status and headers'() {
+    given:
+    def status = new RandomIntGenerator(400, 499)
+    def header = new UuidGenerator()
+    def generators = new Generators()
+      .addGenerator(Category.STATUS, status)
+      .addGenerator(Category.HEADER, 'A', header)
+    def compiled = generators.compile()
+
+    expect:
+    !compiled.empty
+    compiled.statusGenerators*.second == [status]
+    compiled.headerGenerators*.first == ['A']
+    new Generators().compile().empty
+  }
+
+  def 'regex generator generates values matching the regex each time'() {
+    given:
+    def generator = new RegexGenerator('\\d{3}-[a-z]{2}')
+
+    expect:
+    (1..10).collect { generator.generate(null) }.every { it ==~ /\d{3}-[a-z]{2}/ }
+  }
+
+  def 'regex generator can be shared by many threads'() {
+    given:
+    def generator = new RegexGenerator('\\d{3}-[a-z]{2}')
+    def executor = Executors.newFixedThreadPool(4)
+
+    when:
+    def values = (1..100).collect { executor.submit({ generator.generate(null) } as Callable) }*.get()
+
+    then:
+    values.every { it ==~ /\d{3}-[a-z]{2}/ }
+
+    cleanup:
+    executor.shutdown()
+  }
+
+}
@@ -5,7 +5,11 @@ import au.com.dius.pact.model.PactSource;
 import au.com.dius.pact.model.ProviderState;
 import au.com.dius.pact.model.Interaction;
 import au.com.dius.pact.model.Pact;
+import au.com.dius.pact.provider.HttpClientFactory;
+import au.com.dius.pact.provider.ProviderMethodIndex;
 import au.com.dius.pact.provider.ProviderVerifierKt;
+import au.com.dius.pact.provider.junit.target.BaseTarget;
+import au.com.dius.pact.provider.junit.target.HttpTarget;
 import au.com.dius.pact.provider.junit.target.Target;
 import au.com.dius.pact.provider.junit.target.TestClassAwareTarget;
 import au.com.dius.pact.provider.junit.target.TestTarget;
@@ -53,6 +57,8 @@ class InteractionRunner extends Runner {
   private final TestClass testClass;
   private final Pact pact;
   private final PactSource pactSource;
+  private final HttpClientFactory httpClientFactory = new HttpClientFactory();
+  private final ProviderMethodIndex.Cache providerMethodIndexes = new ProviderMethodIndex.Cache();
 
   private final ConcurrentHashMap<Interaction, Description> childDescriptions = new ConcurrentHashMap<>();
 
@@ -156,17 +162,21 @@ class InteractionRunner extends Runner {
     // Running
     public void run(final RunNotifier notifier) {
       Boolean allPassed = true;
-      for (final Interaction interaction : pact.getInteractions()) {
-        final Description description = describeChild(interaction);
-        notifier.fireTestStarted(description);
-        try {
-          interactionBlock(interaction, pactSource).evaluate();
-        } catch (final Throwable e) {
-          notifier.fireTestFailure(new Failure(description, e));
-          allPassed = false;
-        } finally {
-          notifier.fireTestFinished(description);
+      try {
+        for (final Interaction interaction : pact.getInteractions()) {
+          final Description description = describeChild(interaction);
+          notifier.fireTestStarted(description);
+          try {
+            interactionBlock(interaction, pactSource).evaluate();
+          } catch (final Throwable e) {
+            notifier.fireTestFailure(new Failure(description, e));
+            allPassed = false;
+          } finally {
+            notifier.fireTestFinished(description);
+          }
         }
+      } finally {
+        httpClientFactory.close();
       }
 
       if (!(pact instanceof FilteredPact) || ((FilteredPact) pact).isNotFiltered()) {
@@ -216,6 +226,12 @@ class InteractionRunner extends Runner {
         if (target instanceof TestClassAwareTarget) {
           ((TestClassAwareTarget) target).setTestClass(testClass, test);
         }
+        if (target instanceof BaseTarget) {
+          ((BaseTarget) target).setProviderMethodIndexes(providerMethodIndexes);
+        }
+        if (target instanceof HttpTarget) {
+          ((HttpTarget) target).setHttpClientFactory(httpClientFactory);
+        }
 
         Statement statement = new Statement() {
             @Override
@@ -71,6 +71,7 @@ public class AmqpTarget extends BaseTarget {
                                              ConsumerInfo consumer) {
     ProviderVerifier verifier = new ProviderVerifier();
     verifier.setProjectClasspath(new MethodClosure(this, "getClassPathUrls"));
+    verifier.setProviderMethodIndexes(providerMethodIndexes);
 
     setupReporters(verifier, provider.getName(), interaction.getDescription());
 
@@ -3,6 +3,7 @@ package au.com.dius.pact.provider.junit.target;
 import au.com.dius.pact.model.Interaction;
 import au.com.dius.pact.model.PactSource;
 import au.com.dius.pact.provider.ConsumerInfo;
+import au.com.dius.pact.provider.ProviderMethodIndex;
 import au.com.dius.pact.provider.ProviderInfo;
 import au.com.dius.pact.provider.ProviderVerifier;
 import au.com.dius.pact.provider.junit.VerificationReports;
@@ -29,6 +30,7 @@ public abstract class BaseTarget implements TestClassAwareTarget {
   protected TestClass testClass;
   protected Object testTarget;
   protected ValueResolver valueResolver = new SystemPropertyResolver();
+  protected ProviderMethodIndex.Cache providerMethodIndexes = new ProviderMethodIndex.Cache();
 
   /**
    * {@inheritDoc}
@@ -141,4 +143,16 @@ public abstract class BaseTarget implements TestClassAwareTarget {
   public void setValueResolver(ValueResolver valueResolver) {
     this.valueResolver = valueResolver;
   }
+
+  public ProviderMethodIndex.Cache getProviderMethodIndexes() {
+    return providerMethodIndexes;
+  }
+
+  /**
+   * Sets the cache of the annotated provider methods. A target is created for each interaction, so the runner sets
+   * the same cache on all of them to only scan the classpath once.
+   */
+  public void setProviderMethodIndexes(ProviderMethodIndex.Cache providerMethodIndexes) {
+    this.providerMethodIndexes = providerMethodIndexes;
+  }
 }
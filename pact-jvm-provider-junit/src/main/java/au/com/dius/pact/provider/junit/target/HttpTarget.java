@@ -4,6 +4,7 @@ import au.com.dius.pact.model.PactSource;
 import au.com.dius.pact.model.ProviderState;
 import au.com.dius.pact.model.Interaction;
 import au.com.dius.pact.provider.ConsumerInfo;
+import au.com.dius.pact.provider.HttpClientFactory;
 import au.com.dius.pact.provider.ProviderInfo;
 import au.com.dius.pact.provider.ProviderVerifier;
 import au.com.dius.pact.provider.junit.Provider;
@@ -27,6 +28,7 @@ public class HttpTarget extends BaseTarget {
     private final int port;
     private final String protocol;
     private final boolean insecure;
+    private HttpClientFactory httpClientFactory;
 
   /**
      * @param host host of tested service
@@ -121,6 +123,9 @@ public class HttpTarget extends BaseTarget {
         }
       } finally {
         verifier.finialiseReports();
+        if (httpClientFactory == null) {
+          verifier.getHttpClientFactory().close();
+        }
       }
     }
 
@@ -128,6 +133,9 @@ public class HttpTarget extends BaseTarget {
     protected ProviderVerifier setupVerifier(Interaction interaction, ProviderInfo provider,
                                              ConsumerInfo consumer) {
     ProviderVerifier verifier = new ProviderVerifier();
+    if (httpClientFactory != null) {
+      verifier.setHttpClientFactory(httpClientFactory);
+    }
 
     setupReporters(verifier, provider.getName(), interaction.getDescription());
 
@@ -145,6 +153,20 @@ public class HttpTarget extends BaseTarget {
     return verifier;
   }
 
+  public HttpClientFactory getHttpClientFactory() {
+    return httpClientFactory;
+  }
+
+  /**
+   * Sets the factory of the HTTP clients used to call the tested service. The test targets are created for each
+   * interaction, so the runner sets the same factory on all of them to reuse the connections across the interactions
+   * of a pact, and closes it once they have been verified. Without a factory, the clients are closed after each
+   * interaction.
+   */
+  public void setHttpClientFactory(HttpClientFactory httpClientFactory) {
+    this.httpClientFactory = httpClientFactory;
+  }
+
   protected ProviderInfo getProviderInfo(PactSource source) {
       Provider provider = testClass.getAnnotation(Provider.class);
       final ProviderInfo providerInfo = new ProviderInfo(provider.value());
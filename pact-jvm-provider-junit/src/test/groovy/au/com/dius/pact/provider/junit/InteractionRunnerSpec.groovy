@@ -38,4 +38,29 @@ class InteractionRunnerSpec extends Specification {
     0 * runner.reportVerificationResults(false)
   }
 
+  def 'gives the targets of a runner the same HTTP client factory and provider method indexes'() {
+    given:
+    def interaction1 = new RequestResponseInteraction(description: 'Interaction 1')
+    def interaction2 = new RequestResponseInteraction(description: 'Interaction 2')
+    def pact = new RequestResponsePact(new Provider(), new Consumer(), [ interaction1, interaction2 ])
+    def clazz = new TestClass(InteractionRunnerTestClass)
+    def runner1 = Spy(InteractionRunner, constructorArgs: [clazz, pact, UnknownPactSource.INSTANCE])
+    def runner2 = Spy(InteractionRunner, constructorArgs: [clazz, pact, UnknownPactSource.INSTANCE])
+    def tests = (1..3).collect { new InteractionRunnerTestClass() }
+    runner1.createTest() >>> [tests[0], tests[1]]
+    runner2.createTest() >> tests[2]
+
+    when:
+    runner1.interactionBlock(interaction1, UnknownPactSource.INSTANCE)
+    runner1.interactionBlock(interaction2, UnknownPactSource.INSTANCE)
+    runner2.interactionBlock(interaction1, UnknownPactSource.INSTANCE)
+
+    then:
+    tests[0].target.httpClientFactory != null
+    tests[0].target.httpClientFactory.is(tests[1].target.httpClientFactory)
+    !tests[0].target.httpClientFactory.is(tests[2].target.httpClientFactory)
+    tests[0].target.providerMethodIndexes.is(tests[1].target.providerMethodIndexes)
+    !tests[0].target.providerMethodIndexes.is(tests[2].target.providerMethodIndexes)
+  }
+
 }
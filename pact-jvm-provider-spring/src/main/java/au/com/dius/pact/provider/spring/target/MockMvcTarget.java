@@ -131,6 +131,7 @@ public class MockMvcTarget extends BaseTarget {
         setupReporters(verifier, provider.getName(), interaction.getDescription());
 
         verifier.setProjectClasspath(new MethodClosure(this, "getClassPathUrls"));
+        verifier.setProviderMethodIndexes(providerMethodIndexes);
 
         verifier.initialiseReporters(provider);
         verifier.reportVerificationForConsumer(consumer, provider);
@@ -1,5 +1,6 @@
 package au.com.dius.pact.provider
 
+import org.apache.http.client.config.RequestConfig
 import org.apache.http.config.Registry
 import org.apache.http.config.RegistryBuilder
 import org.apache.http.conn.socket.ConnectionSocketFactory
@@ -8,8 +9,14 @@ import org.apache.http.conn.ssl.AllowAllHostnameVerifier
 import org.apache.http.conn.ssl.SSLConnectionSocketFactory
 import org.apache.http.impl.client.CloseableHttpClient
 import org.apache.http.impl.client.HttpClientBuilder
-import org.apache.http.impl.client.HttpClients
 import org.apache.http.impl.conn.PoolingHttpClientConnectionManager
+import org.apache.http.impl.nio.client.CloseableHttpAsyncClient
+import org.apache.http.impl.nio.client.HttpAsyncClients
+import org.apache.http.impl.nio.conn.PoolingNHttpClientConnectionManager
+import org.apache.http.impl.nio.reactor.DefaultConnectingIOReactor
+import org.apache.http.nio.conn.NoopIOSessionStrategy
+import org.apache.http.nio.conn.SchemeIOSessionStrategy
+import org.apache.http.nio.conn.ssl.SSLIOSessionStrategy
 import org.apache.http.ssl.SSLContextBuilder
 
 import javax.net.ssl.HostnameVerifier
@@ -17,12 +24,72 @@ import javax.net.ssl.SSLContext
 import java.security.cert.X509Certificate
 
 /**
- * HTTP Client Factory
+ * HTTP Client Factory. One client is created for each provider configuration and reused for all the requests to the
+ * provider, with a pool of keep-alive connections. The clients are closed with {@link #close}.
  */
 @SuppressWarnings('FactoryMethodName')
-class HttpClientFactory {
+class HttpClientFactory implements Closeable {
 
+    private static final String ASYNC = 'async'
+
+    private final Map<List, Closeable> clients = [:]
+
+    /**
+     * Returns the client for the provider, creating it on the first request to the provider
+     */
     CloseableHttpClient newClient(def provider) {
+        (CloseableHttpClient) cachedClient(clientKey(provider)) { createClient(provider) }
+    }
+
+    /**
+     * If requests to the provider can be made with the non-blocking client. Providers with their own client set with
+     * createClient can not, as the non-blocking client would not be configured the same way.
+     */
+    boolean canCreateAsyncClient(def provider) {
+        provider?.createClient == null
+    }
+
+    /**
+     * Returns the non-blocking client for the provider, creating and starting it on the first request to the provider
+     */
+    CloseableHttpAsyncClient newAsyncClient(def provider) {
+        (CloseableHttpAsyncClient) cachedClient(clientKey(provider) + ASYNC) { createAsyncClient(provider) }
+    }
+
+    /**
+     * Closes the clients for the provider
+     */
+    void close(def provider) {
+        def key = clientKey(provider)
+        List<Closeable> closing
+        synchronized (clients) {
+            closing = [clients.remove(key), clients.remove(key + ASYNC)]
+        }
+        closing.each { it?.close() }
+    }
+
+    /**
+     * Closes all the clients
+     */
+    void close() {
+        List<Closeable> closing
+        synchronized (clients) {
+            closing = clients.values().toList()
+            clients.clear()
+        }
+        closing.each { it?.close() }
+    }
+
+    /**
+     * The settings that the client is created from, so providers with the same settings share the client
+     */
+    protected static List clientKey(def provider) {
+        [provider?.protocol, provider?.host, provider?.port, provider?.createClient, provider?.insecure,
+         provider?.trustStore, provider?.trustStorePassword, provider?.maxConnections, provider?.connectTimeout,
+         provider?.socketTimeout]
+    }
+
+    protected CloseableHttpClient createClient(def provider) {
         if (provider?.createClient != null) {
             if (provider.createClient instanceof Closure) {
                 provider.createClient(provider)
@@ -33,30 +100,70 @@ class HttpClientFactory {
                 shell.evaluate(provider.createClient as String)
             }
         } else if (provider?.insecure) {
-            createInsecure()
+            createInsecure(provider)
         } else if (provider?.trustStore && provider?.trustStorePassword) {
             createWithTrustStore(provider)
         } else {
-            HttpClients.createDefault()
+            createPooled(provider, HttpClientBuilder.create(), SSLConnectionSocketFactory.socketFactory)
         }
     }
 
-    private static createWithTrustStore(provider) {
-        char[] password = provider.trustStorePassword.toCharArray()
+    protected CloseableHttpAsyncClient createAsyncClient(def provider) {
+        SSLIOSessionStrategy sslStrategy
+        if (provider?.insecure) {
+            sslStrategy = new SSLIOSessionStrategy(insecureSslContext(), new AllowAllHostnameVerifier())
+        } else if (provider?.trustStore && provider?.trustStorePassword) {
+            sslStrategy = new SSLIOSessionStrategy(trustStoreSslContext(provider))
+        } else {
+            sslStrategy = SSLIOSessionStrategy.defaultStrategy
+        }
 
-        HttpClients
-                .custom()
-                .setSslcontext(new SSLContextBuilder().loadTrustMaterial(provider.trustStore as File, password).build())
+        Registry<SchemeIOSessionStrategy> sessionStrategyRegistry = RegistryBuilder.<SchemeIOSessionStrategy> create()
+                .register('http', NoopIOSessionStrategy.INSTANCE)
+                .register('https', sslStrategy)
                 .build()
+
+        // the requests are sent and the responses received by the I/O dispatch threads of the reactor, so many
+        // requests can be in flight without a thread for each of them
+        PoolingNHttpClientConnectionManager connMgr = new PoolingNHttpClientConnectionManager(
+                new DefaultConnectingIOReactor(), sessionStrategyRegistry)
+        connMgr.maxTotal = maxConnections(provider)
+        connMgr.defaultMaxPerRoute = maxConnections(provider)
+
+        CloseableHttpAsyncClient client = HttpAsyncClients.custom()
+                .setConnectionManager(connMgr)
+                .setDefaultRequestConfig(requestConfig(provider))
+                .build()
+        client.start()
+        client
     }
 
-    private static CloseableHttpClient createInsecure() {
+    private Closeable cachedClient(List key, Closure<Closeable> create) {
+        Closeable client
+        synchronized (clients) {
+            client = clients[key]
+            if (client == null) {
+                client = create()
+                clients[key] = client
+            }
+        }
+        client
+    }
+
+    private static CloseableHttpClient createWithTrustStore(provider) {
+        SSLContext sslContext = trustStoreSslContext(provider)
+        createPooled(provider, HttpClientBuilder.create(), new SSLConnectionSocketFactory(sslContext))
+    }
+
+    private static SSLContext trustStoreSslContext(provider) {
+        char[] password = provider.trustStorePassword.toCharArray()
+        new SSLContextBuilder().loadTrustMaterial(provider.trustStore as File, password).build()
+    }
+
+    private static CloseableHttpClient createInsecure(provider) {
         HttpClientBuilder b = HttpClientBuilder.create()
 
-        // setup a Trust Strategy that allows all certificates.
-        //
-        def trustStratergy = { X509Certificate[] chain, String authType -> true }
-        SSLContext sslContext = new SSLContextBuilder().loadTrustMaterial(null, trustStratergy).build()
+        SSLContext sslContext = insecureSslContext()
         b.setSslcontext(sslContext)
         // don't check Hostnames, either.
         //      -- use SSLConnectionSocketFactory.getDefaultHostnameVerifier(), if you don't want to weaken
@@ -67,18 +174,50 @@ class HttpClientFactory {
         //      -- and create a Registry, to register it.
         //
         SSLConnectionSocketFactory sslSocketFactory = new SSLConnectionSocketFactory(sslContext, hostnameVerifier)
+
+        // finally, build the pooled HttpClient;
+        //      -- done!
+        createPooled(provider, b, sslSocketFactory)
+    }
+
+    private static SSLContext insecureSslContext() {
+        // setup a Trust Strategy that allows all certificates.
+        //
+        def trustStratergy = { X509Certificate[] chain, String authType -> true }
+        new SSLContextBuilder().loadTrustMaterial(null, trustStratergy).build()
+    }
+
+    private static CloseableHttpClient createPooled(provider, HttpClientBuilder builder,
+                                                    SSLConnectionSocketFactory sslSocketFactory) {
         Registry<ConnectionSocketFactory> socketFactoryRegistry = RegistryBuilder.<ConnectionSocketFactory> create()
                 .register('http', PlainConnectionSocketFactory.socketFactory)
                 .register('https', sslSocketFactory)
                 .build()
 
-        // now, we create connection-manager using our Registry.
-        //      -- allows multi-threaded use
+        // the connection manager keeps the connections to the provider alive between requests, and
+        // allows multi-threaded use when interactions are verified concurrently
         PoolingHttpClientConnectionManager connMgr = new PoolingHttpClientConnectionManager(socketFactoryRegistry)
-        b.setConnectionManager(connMgr)
+        connMgr.maxTotal = maxConnections(provider)
+        connMgr.defaultMaxPerRoute = maxConnections(provider)
 
-        // finally, build the HttpClient;
-        //      -- done!
-        b.build()
+        builder
+                .setConnectionManager(connMgr)
+                .setDefaultRequestConfig(requestConfig(provider))
+                .build()
+    }
+
+    /**
+     * The maximum number of connections to the provider that a client keeps open
+     */
+    static int maxConnections(provider) {
+        provider?.maxConnections ?: ProviderInfo.DEFAULT_MAX_CONNECTIONS
+    }
+
+    private static RequestConfig requestConfig(provider) {
+        RequestConfig.custom()
+                .setConnectTimeout(provider?.connectTimeout ?: -1)
+                .setConnectionRequestTimeout(provider?.connectTimeout ?: -1)
+                .setSocketTimeout(provider?.socketTimeout ?: -1)
+                .build()
     }
 }
@@ -20,14 +20,20 @@ import org.apache.http.client.methods.HttpPatch
 import org.apache.http.client.methods.HttpPost
 import org.apache.http.client.methods.HttpPut
 import org.apache.http.client.methods.HttpTrace
+import org.apache.http.client.methods.HttpUriRequest
 import org.apache.http.client.utils.URIBuilder
+import org.apache.http.concurrent.FutureCallback
 import org.apache.http.entity.ContentType
 import org.apache.http.entity.StringEntity
 import org.apache.http.impl.client.CloseableHttpClient
+import org.apache.http.impl.nio.client.CloseableHttpAsyncClient
 import org.apache.http.message.BasicNameValuePair
 import org.apache.http.util.EntityUtils
 import scala.Function1
 
+import java.util.concurrent.CancellationException
+import java.util.concurrent.CompletableFuture
+
 /**
  * Client HTTP utility for providers
  */
@@ -48,11 +54,7 @@ class ProviderClient {
         log.debug request.toString()
 
         CloseableHttpClient httpclient = httpClientFactory.newClient(provider)
-        HttpRequest method = newRequest(request)
-        setupHeaders(method)
-        setupBody(method)
-
-        executeRequestFilter(method)
+        HttpRequest method = prepareRequest()
 
         def response = httpclient.execute(method)
         try {
@@ -62,6 +64,32 @@ class ProviderClient {
         }
     }
 
+    /**
+     * Makes the request with the non-blocking client of the provider. The request is built and passed through the
+     * request filter before this returns, and the future completes with the same response map as makeRequest once
+     * the response has been received.
+     */
+    CompletableFuture<Map> makeRequestAsync() {
+        log.debug "Making asynchronous request for provider $provider:"
+        log.debug request.toString()
+
+        CloseableHttpAsyncClient httpclient = httpClientFactory.newAsyncClient(provider)
+        HttpUriRequest method = prepareRequest()
+
+        CompletableFuture<Map> result = new CompletableFuture<>()
+        httpclient.execute(method, new ResponseCallback(result))
+        result
+    }
+
+    private HttpRequest prepareRequest() {
+        HttpRequest method = newRequest(request)
+        setupHeaders(method)
+        setupBody(method)
+
+        executeRequestFilter(method)
+        method
+    }
+
     private void executeRequestFilter(HttpRequest method) {
         if (provider.requestFilter != null) {
             if (provider.requestFilter instanceof Closure) {
@@ -281,4 +309,32 @@ class ProviderClient {
         request.method.toLowerCase() == 'post' &&
                 request.mimeType() == ContentType.APPLICATION_FORM_URLENCODED.mimeType
     }
+
+  /**
+   * Completes the future of a non-blocking request with the response map
+   */
+  @SuppressWarnings('CatchException')
+  protected static class ResponseCallback implements FutureCallback<HttpResponse> {
+    private final CompletableFuture<Map> result
+
+    ResponseCallback(CompletableFuture<Map> result) {
+      this.result = result
+    }
+
+    void completed(HttpResponse response) {
+      try {
+        result.complete(handleResponse(response))
+      } catch (Exception e) {
+        result.completeExceptionally(e)
+      }
+    }
+
+    void failed(Exception e) {
+      result.completeExceptionally(e)
+    }
+
+    void cancelled() {
+      result.completeExceptionally(new CancellationException('The request was cancelled'))
+    }
+  }
 }
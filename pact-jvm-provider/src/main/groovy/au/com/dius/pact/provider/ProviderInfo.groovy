@@ -12,6 +12,8 @@ import groovy.transform.ToString
 @ToString
 @EqualsAndHashCode
 class ProviderInfo {
+    static final int DEFAULT_MAX_CONNECTIONS = 10
+
     String protocol = 'http'
     def host = 'localhost'
     def port = 8080
@@ -27,10 +29,15 @@ class ProviderInfo {
     boolean insecure = false
     File trustStore
     String trustStorePassword = 'changeit'
+    int maxConnections = DEFAULT_MAX_CONNECTIONS
+    int connectTimeout = -1
+    int socketTimeout = -1
 
     URL stateChangeUrl
     boolean stateChangeUsesBody = true
     boolean stateChangeTeardown = false
+    boolean reuseProviderStates = false
+    List<String> nonReusableProviderStates = []
 
     boolean isDependencyForPactVerify = true
 
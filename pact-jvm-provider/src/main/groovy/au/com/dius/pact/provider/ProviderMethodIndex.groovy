@@ -0,0 +1,83 @@
+package au.com.dius.pact.provider
+
+import groovy.util.logging.Slf4j
+import org.reflections.Reflections
+import org.reflections.scanners.MethodAnnotationsScanner
+import org.reflections.util.ConfigurationBuilder
+import org.reflections.util.FilterBuilder
+
+import java.lang.reflect.Method
+import java.util.concurrent.ConcurrentHashMap
+import java.util.function.Function
+
+/**
+ * Index of the methods annotated with {@link PactVerifyProvider}, by the interaction description in the annotation.
+ * The classpath is only scanned when the index is built, and the instances that the methods are invoked on are
+ * created once for each class.
+ */
+@Slf4j
+class ProviderMethodIndex {
+  private final Map<String, Set<Method>> methods
+  private final Map<Class, Object> instances = new ConcurrentHashMap<>()
+
+  ProviderMethodIndex(Collection<Method> annotatedMethods) {
+    methods = annotatedMethods.inject([:]) { Map result, Method m ->
+      log.debug("Found annotated method $m")
+      def annotation = m.annotations.find { it.annotationType().toString() == PactVerifyProvider.toString() }
+      log.debug("Found annotation $annotation")
+      if (annotation != null) {
+        result.get(annotation.value(), [] as LinkedHashSet) << m
+      }
+      result
+    }
+  }
+
+  /**
+   * Returns the methods that verify the interaction with the description
+   */
+  Set<Method> methodsFor(String description) {
+    methods[description] ?: [] as Set
+  }
+
+  /**
+   * Returns the instance to invoke the method on, which is created with the closure for the first method of a class
+   */
+  Object instanceFor(Method method, def create) {
+    instances.computeIfAbsent(method.declaringClass, { create.call(method) } as Function)
+  }
+
+  /**
+   * Scans the classpath for the annotated methods. Only the packages to scan are scanned if any are given.
+   */
+  static ProviderMethodIndex scan(def urls, List packagesToScan) {
+    URLClassLoader loader = new URLClassLoader(urls as URL[], GroovyObject.classLoader)
+    def configurationBuilder = new ConfigurationBuilder()
+      .setScanners(new MethodAnnotationsScanner())
+      .addClassLoader(loader)
+      .addUrls(loader.URLs)
+
+    if (packagesToScan) {
+      def filterBuilder = new FilterBuilder()
+      packagesToScan.each { filterBuilder.include(it) }
+      configurationBuilder.filterInputsBy(filterBuilder)
+    }
+
+    Reflections reflections = new Reflections(configurationBuilder)
+    new ProviderMethodIndex(reflections.getMethodsAnnotatedWith(PactVerifyProvider))
+  }
+
+  /**
+   * Indexes that have been built, by the classpath URLs and packages to scan. A verification run scans the classpath
+   * once, and the test runners give their cache to the targets they create for each interaction.
+   */
+  static class Cache {
+    private final Map<List, ProviderMethodIndex> indexes = new ConcurrentHashMap<>()
+
+    ProviderMethodIndex index(def urls, List packagesToScan) {
+      // URLs are compared as strings, as URL.equals resolves the host name
+      List packages = packagesToScan ?: []
+      def key = [urls.collect { it.toString() }, packages.collect { it.toString() }]
+      indexes.computeIfAbsent(key, { scan(urls, packages) } as Function)
+    }
+  }
+}
@@ -0,0 +1,58 @@
+package au.com.dius.pact.provider
+
+import au.com.dius.pact.provider.reporters.BufferedReporter
+
+/**
+ * Groups the interactions of all the consumers of a provider by the provider states they need, so the state change
+ * for each group is only run once. Interactions are only grouped if they have the same provider states in the same
+ * order and use the same state change handler.
+ */
+class ProviderStateScheduler {
+
+  /**
+   * Interaction of a consumer to verify, with the events reported while it is verified
+   */
+  static class ScheduledInteraction {
+    ConsumerInfo consumer
+    def interaction
+    String interactionMessage
+    BufferedReporter events = new BufferedReporter()
+    boolean result
+  }
+
+  /**
+   * Returns the groups of interactions, in the order of the first interaction of each group. Interactions that need
+   * a provider state listed in nonReusableProviderStates of the provider are each put in a group of their own.
+   */
+  static List<List<ScheduledInteraction>> schedule(ProviderInfo provider, List<ScheduledInteraction> interactions) {
+    Map<List, List<ScheduledInteraction>> groups = [:]
+    interactions.eachWithIndex { scheduled, index ->
+      def key
+      if (reusable(provider, scheduled.interaction)) {
+        key = [stateChangeHandler(provider, scheduled.consumer), scheduled.interaction.providerStates]
+      } else {
+        key = [index]
+      }
+      groups.get(key, []) << scheduled
+    }
+    groups.values().toList()
+  }
+
+  /**
+   * If the provider states of the interaction can be set up once for other interactions
+   */
+  static boolean reusable(ProviderInfo provider, def interaction) {
+    !interaction.providerStates.any { it.name in provider.nonReusableProviderStates }
+  }
+
+  private static List stateChangeHandler(ProviderInfo provider, ConsumerInfo consumer) {
+    if (consumer.stateChange == null) {
+      [provider.stateChangeUrl?.toString(), provider.stateChangeUsesBody]
+    } else if (consumer.stateChange instanceof URL) {
+      // URLs are compared as strings, as URL.equals resolves the host name
+      [consumer.stateChange.toString(), consumer.stateChangeUsesBody]
+    } else {
+      [consumer.stateChange, consumer.stateChangeUsesBody]
+    }
+  }
+}
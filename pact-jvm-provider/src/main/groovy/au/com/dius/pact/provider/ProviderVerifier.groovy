@@ -6,15 +6,21 @@ import au.com.dius.pact.model.PactReader
 import au.com.dius.pact.model.Response
 import au.com.dius.pact.model.UrlPactSource
 import au.com.dius.pact.model.v3.messaging.Message
+import au.com.dius.pact.provider.ProviderStateScheduler.ScheduledInteraction
 import au.com.dius.pact.provider.reporters.AnsiConsoleReporter
+import au.com.dius.pact.provider.reporters.BufferedReporter
 import groovy.util.logging.Slf4j
-import org.reflections.Reflections
-import org.reflections.scanners.MethodAnnotationsScanner
-import org.reflections.util.ConfigurationBuilder
-import org.reflections.util.FilterBuilder
 import scala.Function1
 
 import java.lang.reflect.Method
+import java.util.concurrent.Callable
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.ExecutionException
+import java.util.concurrent.Executors
+import java.util.concurrent.Future
+import java.util.function.Consumer
+import java.util.function.Function
+import java.util.function.Supplier
 
 /**
  * Verifies the providers against the defined consumers in the context of a build plugin
@@ -27,6 +33,8 @@ class ProviderVerifier {
   static final protected String PACT_FILTER_PROVIDERSTATE = 'pact.filter.providerState'
   static final protected String PACT_SHOW_STACKTRACE = 'pact.showStacktrace'
   static final protected String PACT_SHOW_FULLDIFF = 'pact.showFullDiff'
+  static final protected String PACT_VERIFIER_WORKERS = 'pact.verifier.workers'
+  static final protected String PACT_VERIFIER_ASYNC = 'pact.verifier.asyncRequests'
 
   def projectHasProperty = { }
   def projectGetProperty = { }
@@ -37,9 +45,24 @@ class ProviderVerifier {
   def reporters = [ new AnsiConsoleReporter() ]
   def providerMethodInstance = { Method m -> m.declaringClass.newInstance() }
   def providerVersion = { }
+  HttpClientFactory httpClientFactory = new HttpClientFactory()
+  ProviderMethodIndex.Cache providerMethodIndexes = new ProviderMethodIndex.Cache()
 
+  protected final ThreadLocal<List> interactionReporters = new ThreadLocal<>()
+
+  /**
+   * Returns the reporters. While an interaction is verified concurrently with other interactions, this is a buffer of
+   * the reported events, which are passed on to the reporters in the order of the interactions.
+   */
+  def getReporters() {
+    currentReporters()
+  }
+
+  protected currentReporters() {
+    interactionReporters.get() ?: reporters
+  }
   Map verifyProvider(ProviderInfo provider) {
-    Map failures = [:]
+    Map failures = Collections.synchronizedMap([:])
 
     initialiseReporters(provider)
 
@@ -47,7 +70,19 @@ class ProviderVerifier {
     if (consumers.empty) {
       reporters.each { it.warnProviderHasNoConsumers(provider) }
     }
-    consumers.each(this.&runVerificationForConsumer.curry(failures, provider))
+    try {
+      if (provider.reuseProviderStates) {
+        if (callProjectHasProperty(PACT_VERIFIER_WORKERS) || callProjectHasProperty(PACT_VERIFIER_ASYNC)) {
+          log.warn("Ignoring $PACT_VERIFIER_WORKERS and $PACT_VERIFIER_ASYNC for provider ${provider.name}, " +
+            'as it reuses provider states')
+        }
+        verifyConsumersByProviderState(failures, provider, consumers)
+      } else {
+        consumers.each(this.&runVerificationForConsumer.curry(failures, provider))
+      }
+    } finally {
+      httpClientFactory.close(provider)
+    }
 
     failures
   }
@@ -64,22 +99,296 @@ class ProviderVerifier {
   void runVerificationForConsumer(Map failures, ProviderInfo provider, ConsumerInfo consumer) {
     reportVerificationForConsumer(consumer, provider)
     def pact = new FilteredPact(loadPactFileForConsumer(consumer), this.&filterInteractions)
-    if (pact.interactions.empty) {
+    def interactions = pact.interactions
+    if (interactions.empty) {
       reporters.each { it.warnPactFileHasNoInteractions(pact) }
     } else {
-      def result = pact.interactions
+      def result = verifyInteractions(provider, consumer, interactions, failures)
+      publishVerificationResults(pact, result)
+    }
+  }
+
+  void publishVerificationResults(FilteredPact pact, boolean result) {
+    if (pact.isNotFiltered()) {
+      ProviderVerifierKt.reportVerificationResults(pact, result, providerVersion() ?: '0.0.0')
+    } else {
+      log.warn('Skipping publishing of verification results as the interactions have been filtered')
+    }
+  }
+
+  /**
+   * Verifies the interactions of all the consumers grouped by their provider states, so the state change for
+   * interactions that need the same provider states is only run once. The reported events are buffered and passed on
+   * to the reporters for each consumer in turn, in the order of the interactions of the pact.
+   */
+  protected void verifyConsumersByProviderState(Map failures, ProviderInfo provider, List consumers) {
+    List<ConsumerVerification> verifications = []
+    try {
+      consumers.each { consumer ->
+        def verification = new ConsumerVerification(consumer: consumer)
+        verifications << verification
+        interactionReporters.set([verification.events])
+        try {
+          reportVerificationForConsumer(consumer, provider)
+          verification.pact = new FilteredPact(loadPactFileForConsumer(consumer), this.&filterInteractions)
+          verification.interactions = verification.pact.interactions.collect {
+            new ScheduledInteraction(consumer: consumer, interaction: it,
+              interactionMessage: verificationMessage(provider, consumer, it))
+          }
+          if (verification.interactions.empty) {
+            currentReporters().each { it.warnPactFileHasNoInteractions(verification.pact) }
+          }
+        } finally {
+          interactionReporters.remove()
+        }
+      }
+
+      def scheduled = verifications.collectMany { it.interactions }
+      ProviderStateScheduler.schedule(provider, scheduled).each { group ->
+        verifyProviderStateGroup(provider, group, failures)
+      }
+    } finally {
+      verifications.each { verification ->
+        verification.events.replay(reporters)
+        verification.interactions.each { it.events.replay(reporters) }
+      }
+    }
+
+    verifications.findAll { it.interactions }.each { verification ->
+      publishVerificationResults(verification.pact, verification.interactions.every { it.result })
+    }
+  }
+
+  /**
+   * Verifies a group of interactions that need the same provider states. The provider states are set up before the
+   * first interaction and torn down after the last one. If the state change fails, the other interactions of the group
+   * are verified with their own state changes.
+   */
+  protected void verifyProviderStateGroup(ProviderInfo provider, List<ScheduledInteraction> group, Map failures) {
+    def first = group.first()
+    if (group.size() == 1) {
+      first.result = withReporters(first) {
+        verifyInteraction(provider, first.consumer, failures, first.interaction)
+      }
+      return
+    }
+
+    def setupFailures = [:]
+    def stateChangeResult = withReporters(first) {
+      StateChange.executeStateChange(this, provider, first.consumer, first.interaction, first.interactionMessage,
+        setupFailures)
+    }
+    if (stateChangeResult.stateChangeOk) {
+      String states = stateChangeResult.message.substring(first.interactionMessage.length())
+      group.eachWithIndex { scheduled, index ->
+        scheduled.result = withReporters(scheduled) {
+          if (index > 0) {
+            scheduled.interaction.providerStates.each {
+              reportStateForInteraction(it.name, provider, scheduled.consumer, true)
+            }
+          }
+          verifyInteractionInState(provider, scheduled.consumer, failures, scheduled.interaction,
+            scheduled.interactionMessage + states)
+        }
+      }
+      if (provider.stateChangeTeardown) {
+        withReporters(group.last()) {
+          StateChange.executeStateChangeTeardown(this, first.interaction, provider, first.consumer)
+        }
+      }
+    } else {
+      failures.putAll(setupFailures)
+      first.result = false
+      group.tail().each { scheduled ->
+        scheduled.result = withReporters(scheduled) {
+          verifyInteraction(provider, scheduled.consumer, failures, scheduled.interaction)
+        }
+      }
+    }
+  }
+
+  protected withReporters(ScheduledInteraction scheduled, Closure verification) {
+    interactionReporters.set([scheduled.events])
+    def result
+    try {
+      result = verification.call()
+    } finally {
+      interactionReporters.remove()
+    }
+    result
+  }
+
+  protected static class ConsumerVerification {
+    ConsumerInfo consumer
+    FilteredPact pact
+    List<ScheduledInteraction> interactions = []
+    BufferedReporter events = new BufferedReporter()
+  }
+
+  /**
+   * Verifies the interactions. The interactions are verified concurrently when the `pact.verifier.workers` property is
+   * set to more than one worker, with interactions that need different provider states never verified at the same
+   * time. The reported events and failures of each interaction are passed on in the order of the interactions.
+   *
+   * Otherwise, when the `pact.verifier.asyncRequests` property is set, the requests of consecutive interactions
+   * without provider states are all sent with the non-blocking client before their responses are verified.
+   */
+  boolean verifyInteractions(ProviderInfo provider, ConsumerInfo consumer, List interactions, Map failures) {
+    int workers = verifierWorkers()
+    if (workers > 1 && interactions.size() > 1) {
+      verifyInteractionsConcurrently(provider, consumer, interactions, failures, Math.min(workers, interactions.size()))
+    } else if (callProjectHasProperty(PACT_VERIFIER_ASYNC) && httpClientFactory.canCreateAsyncClient(provider) &&
+      ProviderUtils.verificationType(provider, consumer) == PactVerification.REQUST_RESPONSE) {
+      verifyInteractionsPipelined(provider, consumer, interactions, failures)
+    } else {
+      interactions
         .collect(this.&verifyInteraction.curry(provider, consumer, failures))
         .inject(true) { acc, val -> acc && val }
-      if (pact.isNotFiltered()) {
-        ProviderVerifierKt.reportVerificationResults(pact, result, providerVersion() ?: '0.0.0')
+    }
+  }
+
+  /**
+   * Verifies the interactions, sending the requests of each run of interactions without provider states together
+   * and then verifying the responses in the order of the interactions. No more requests are in flight at a time
+   * than the maxConnections of the provider. Interactions with provider states are verified one at a time, as their
+   * requests can only be sent once the provider state has been set up.
+   */
+  protected boolean verifyInteractionsPipelined(ProviderInfo provider, ConsumerInfo consumer, List interactions,
+                                                Map failures) {
+    def runs = interactions.inject([]) { List result, interaction ->
+      boolean stateless = interaction.providerStates.empty
+      if (result && stateless && result.last().stateless) {
+        result.last().interactions << interaction
       } else {
-        log.warn('Skipping publishing of verification results as the interactions have been filtered')
+        result << [stateless: stateless, interactions: [interaction]]
       }
+      result
+    }
+
+    runs.inject(true) { boolean result, Map run ->
+      boolean verified
+      if (run.stateless) {
+        // only as many requests as the client has connections are in flight, so none of them wait for a connection
+        int window = HttpClientFactory.maxConnections(provider)
+        List runInteractions = run.interactions
+        List<CompletableFuture<Map>> responses = runInteractions.take(window).collect { makeRequestAsync(provider, it) }
+        verified = true
+        runInteractions.eachWithIndex { interaction, int index ->
+          def interactionMessage = verificationMessage(provider, consumer, interaction)
+          reportInteractionDescription(interaction)
+          def response = responses[index]
+          verified = verifyResponse(provider, interaction, interactionMessage, failures) { awaitResponse(response) } &&
+            verified
+          if (index + window < runInteractions.size()) {
+            responses << makeRequestAsync(provider, runInteractions[index + window])
+          }
+        }
+      } else {
+        verified = run.interactions
+          .collect(this.&verifyInteraction.curry(provider, consumer, failures))
+          .inject(true) { acc, val -> acc && val }
+      }
+      result && verified
     }
   }
 
+  protected CompletableFuture<Map> makeRequestAsync(ProviderInfo provider, def interaction) {
+    try {
+      new ProviderClient(request: interaction.request, provider: provider, httpClientFactory: httpClientFactory)
+        .makeRequestAsync()
+    } catch (e) {
+      CompletableFuture<Map> failed = new CompletableFuture<>()
+      failed.completeExceptionally(e)
+      failed
+    }
+  }
+
+  protected static Map awaitResponse(CompletableFuture<Map> response) {
+    try {
+      response.get()
+    } catch (ExecutionException e) {
+      throw e.cause
+    }
+  }
+
+  int verifierWorkers() {
+    callProjectHasProperty(PACT_VERIFIER_WORKERS) ? callProjectGetProperty(PACT_VERIFIER_WORKERS).toInteger() : 1
+  }
+
+  @SuppressWarnings('ParameterCount')
+  protected boolean verifyInteractionsConcurrently(ProviderInfo provider, ConsumerInfo consumer, List interactions,
+                                                   Map failures, int workers) {
+    def executor = Executors.newFixedThreadPool(workers, new VerifierThreadFactory())
+    def stateGate = new ProviderStateGate()
+    try {
+      def verifications = interactions.collect { interaction ->
+        def verification = new InteractionVerification()
+        verification.result = executor.submit({
+          interactionReporters.set([verification.events])
+          try {
+            verifyInteractionInStateGate(provider, consumer, verification.failures, interaction, stateGate)
+          } finally {
+            interactionReporters.remove()
+          }
+        } as Callable<Boolean>)
+        verification
+      }
+
+      verifications.inject(true) { boolean result, InteractionVerification verification ->
+        boolean verified
+        try {
+          verified = verification.result.get()
+        } catch (ExecutionException e) {
+          throw e.cause
+        } finally {
+          verification.events.replay(currentReporters())
+          failures.putAll(verification.failures)
+        }
+        result && verified
+      }
+    } finally {
+      executor.shutdownNow()
+    }
+  }
+
+  /**
+   * Verifies the interaction while holding the state gate for its provider states. Only the interaction that sets up
+   * the provider states reports the state change, the others that are verified in the same states report the states.
+   * If the state change fails, all the interactions waiting for it fail.
+   */
+  @SuppressWarnings('ParameterCount')
+  protected boolean verifyInteractionInStateGate(ProviderInfo provider, ConsumerInfo consumer, Map failures,
+                                                 def interaction, ProviderStateGate stateGate) {
+    def interactionMessage = verificationMessage(provider, consumer, interaction)
+    boolean setUp = false
+    def setup = {
+      setUp = true
+      def result = StateChange.executeStateChange(this, provider, consumer, interaction, interactionMessage, failures)
+      new StateChange.StateChangeResult(result.stateChangeOk, result.message.substring(interactionMessage.length()))
+    }
+    def verification = { StateChange.StateChangeResult stateChange ->
+      if (!setUp) {
+        interaction.providerStates.each { reportStateForInteraction(it.name, provider, consumer, true) }
+      }
+      if (stateChange.stateChangeOk) {
+        verifyInteractionInState(provider, consumer, failures, interaction, interactionMessage + stateChange.message)
+      } else {
+        if (!setUp) {
+          failures[interactionMessage + stateChange.message] = stateChange.stateChangeOk
+        }
+        false
+      }
+    }
+    def teardown = { StateChange.StateChangeResult stateChange ->
+      if (stateChange.stateChangeOk && provider.stateChangeTeardown) {
+        StateChange.executeStateChangeTeardown(this, interaction, provider, consumer)
+      }
+    }
+    stateGate.verify(interaction.providerStates, setup as Supplier, verification as Function, teardown as Consumer)
+  }
+
   void reportVerificationForConsumer(ConsumerInfo consumer, ProviderInfo provider) {
-    reporters.each { it.reportVerificationForConsumer(consumer, provider) }
+    currentReporters().each { it.reportVerificationForConsumer(consumer, provider) }
   }
 
   @SuppressWarnings('ThrowRuntimeException')
@@ -90,7 +399,7 @@ class ProviderVerifier {
     }
 
     if (pactSource instanceof UrlPactSource) {
-      reporters.each { it.verifyConsumerFromUrl(pactSource, consumer) }
+      currentReporters().each { it.verifyConsumerFromUrl(pactSource, consumer) }
       def options = [:]
       if (consumer.pactFileAuthentication) {
         options.authentication = consumer.pactFileAuthentication
@@ -99,12 +408,12 @@ class ProviderVerifier {
     } else {
       try {
         def pact = PactReader.loadPact(pactSource)
-        reporters.each { it.verifyConsumerFromFile(pact.source, consumer) }
+        currentReporters().each { it.verifyConsumerFromFile(pact.source, consumer) }
         pact
       } catch (e) {
         log.error('Failed to load pact file', e)
         String message = generateLoadFailureMessage(consumer)
-        reporters.each { it.pactLoadFailureForConsumer(consumer, message) }
+        currentReporters().each { it.pactLoadFailureForConsumer(consumer, message) }
         throw new RuntimeException(message)
       }
     }
@@ -149,24 +458,17 @@ class ProviderVerifier {
     interaction.description ==~ callProjectGetProperty(PACT_FILTER_DESCRIPTION)
   }
 
+  String verificationMessage(ProviderInfo provider, ConsumerInfo consumer, def interaction) {
+    "Verifying a pact between ${consumer.name} and ${provider.name} - ${interaction.description}"
+  }
+
   boolean verifyInteraction(ProviderInfo provider, ConsumerInfo consumer, Map failures, def interaction) {
-    def interactionMessage = "Verifying a pact between ${consumer.name} and ${provider.name}" +
-      " - ${interaction.description}"
+    def interactionMessage = verificationMessage(provider, consumer, interaction)
 
     def stateChangeResult = StateChange.executeStateChange(this, provider, consumer, interaction, interactionMessage,
       failures)
     if (stateChangeResult.stateChangeOk) {
-      interactionMessage += stateChangeResult.message
-      reportInteractionDescription(interaction)
-
-      boolean result = false
-      if (ProviderUtils.verificationType(provider, consumer) == PactVerification.REQUST_RESPONSE) {
-        log.debug('Verifying via request/response')
-        result = verifyResponseFromProvider(provider, interaction, interactionMessage, failures)
-      } else {
-        log.debug('Verifying via annotated test method')
-        result = verifyResponseByInvokingProviderMethods(provider, consumer, interaction, interactionMessage, failures)
-      }
+      boolean result = verifyInteractionInState(provider, consumer, failures, interaction, stateChangeResult.message)
 
       if (provider.stateChangeTeardown) {
         StateChange.executeStateChangeTeardown(this, interaction, provider, consumer)
@@ -178,25 +480,46 @@ class ProviderVerifier {
     }
   }
 
+  /**
+   * Verifies the interaction once its provider states have been set up
+   */
+  @SuppressWarnings('ParameterCount')
+  boolean verifyInteractionInState(ProviderInfo provider, ConsumerInfo consumer, Map failures, def interaction,
+                                   String interactionMessage) {
+    reportInteractionDescription(interaction)
+
+    if (ProviderUtils.verificationType(provider, consumer) == PactVerification.REQUST_RESPONSE) {
+      log.debug('Verifying via request/response')
+      verifyResponseFromProvider(provider, interaction, interactionMessage, failures)
+    } else {
+      log.debug('Verifying via annotated test method')
+      verifyResponseByInvokingProviderMethods(provider, consumer, interaction, interactionMessage, failures)
+    }
+  }
+
   void reportInteractionDescription(interaction) {
-    reporters.each { it.interactionDescription(interaction) }
+    currentReporters().each { it.interactionDescription(interaction) }
   }
 
   void reportStateForInteraction(String state, ProviderInfo provider, ConsumerInfo consumer, boolean isSetup) {
-    reporters.each { it.stateForInteraction(state, provider, consumer, isSetup) }
+    currentReporters().each { it.stateForInteraction(state, provider, consumer, isSetup) }
   }
 
   boolean verifyResponseFromProvider(ProviderInfo provider, def interaction, String interactionMessage, Map failures) {
-    try {
-      ProviderClient client = new ProviderClient(request: interaction.request, provider: provider)
-
-      def expectedResponse = interaction.response
-      def actualResponse = client.makeRequest()
+    verifyResponse(provider, interaction, interactionMessage, failures) {
+      ProviderClient client = new ProviderClient(request: interaction.request, provider: provider,
+        httpClientFactory: httpClientFactory)
+      client.makeRequest()
+    }
+  }
 
-      verifyRequestResponsePact(expectedResponse, actualResponse, interactionMessage, failures)
+  protected boolean verifyResponse(ProviderInfo provider, def interaction, String interactionMessage, Map failures,
+                                   Closure<Map> actualResponse) {
+    try {
+      verifyRequestResponsePact(interaction.response, actualResponse.call(), interactionMessage, failures)
     } catch (e) {
       failures[interactionMessage] = e
-      reporters.each {
+      currentReporters().each {
         it.requestFailed(provider, interaction, interactionMessage, e, callProjectHasProperty(PACT_SHOW_STACKTRACE))
       }
       false
@@ -208,7 +531,7 @@ class ProviderVerifier {
     def comparison = ResponseComparison.compareResponse(expectedResponse, actualResponse,
       actualResponse.statusCode, actualResponse.headers, actualResponse.data)
 
-    reporters.each { it.returnsAResponseWhich() }
+    currentReporters().each { it.returnsAResponseWhich() }
 
     def s = ' returns a response which'
     def result = true
@@ -220,10 +543,10 @@ class ProviderVerifier {
 
   boolean displayStatusResult(Map failures, int status, def comparison, String comparisonDescription) {
     if (comparison == true) {
-      reporters.each { it.statusComparisonOk(status) }
+      currentReporters().each { it.statusComparisonOk(status) }
       true
     } else {
-      reporters.each { it.statusComparisonFailed(status, comparison) }
+      currentReporters().each { it.statusComparisonFailed(status, comparison) }
       failures["$comparisonDescription has status code $status"] = comparison
       false
     }
@@ -233,15 +556,15 @@ class ProviderVerifier {
     if (comparison.isEmpty()) {
       true
     } else {
-      reporters.each { it.includesHeaders() }
+      currentReporters().each { it.includesHeaders() }
       Map expectedHeaders = expected
       boolean result = true
       comparison.each { key, headerComparison ->
         def expectedHeaderValue = expectedHeaders[key]
         if (headerComparison == true) {
-          reporters.each { it.headerComparisonOk(key, expectedHeaderValue) }
+          currentReporters().each { it.headerComparisonOk(key, expectedHeaderValue) }
         } else {
-          reporters.each { it.headerComparisonFailed(key, expectedHeaderValue, headerComparison) }
+          currentReporters().each { it.headerComparisonFailed(key, expectedHeaderValue, headerComparison) }
           failures["$comparisonDescription includes headers \"$key\" with value \"$expectedHeaderValue\""] =
             headerComparison
           result = false
@@ -253,10 +576,10 @@ class ProviderVerifier {
 
   boolean displayBodyResult(Map failures, def comparison, String comparisonDescription) {
     if (comparison.isEmpty()) {
-      reporters.each { it.bodyComparisonOk() }
+      currentReporters().each { it.bodyComparisonOk() }
       true
     } else {
-      reporters.each { it.bodyComparisonFailed(comparison) }
+      currentReporters().each { it.bodyComparisonFailed(comparison) }
       failures["$comparisonDescription has a matching body"] = comparison
       false
     }
@@ -266,41 +589,21 @@ class ProviderVerifier {
   boolean verifyResponseByInvokingProviderMethods(ProviderInfo providerInfo, ConsumerInfo consumer,
                                                def interaction, String interactionMessage, Map failures) {
     try {
-      def urls = projectClasspath()
-      URLClassLoader loader = new URLClassLoader(urls, GroovyObject.classLoader)
-      def configurationBuilder = new ConfigurationBuilder()
-        .setScanners(new MethodAnnotationsScanner())
-        .addClassLoader(loader)
-        .addUrls(loader.URLs)
-
-      def scan = ProviderUtils.packagesToScan(providerInfo, consumer)
-      if (!scan.empty) {
-        def filterBuilder = new FilterBuilder()
-        scan.each { filterBuilder.include(it) }
-        configurationBuilder.filterInputsBy(filterBuilder)
-      }
-
-      Reflections reflections = new Reflections(configurationBuilder)
-      def methodsAnnotatedWith = reflections.getMethodsAnnotatedWith(PactVerifyProvider)
-      def providerMethods = methodsAnnotatedWith.findAll { Method m ->
-        log.debug("Found annotated method $m")
-        def annotation = m.annotations.find { it.annotationType().toString() == PactVerifyProvider.toString() }
-        log.debug("Found annotation $annotation")
-        annotation?.value() == interaction.description
-      }
+      def index = providerMethodIndexes.index(projectClasspath(), ProviderUtils.packagesToScan(providerInfo, consumer))
+      def providerMethods = index.methodsFor(interaction.description)
 
       if (providerMethods.empty) {
-        reporters.each { it.errorHasNoAnnotatedMethodsFoundForInteraction(interaction) }
+        currentReporters().each { it.errorHasNoAnnotatedMethodsFoundForInteraction(interaction) }
         throw new RuntimeException('No annotated methods were found for interaction ' +
           "'${interaction.description}'")
       } else {
         if (interaction instanceof Message) {
-          verifyMessagePact(providerMethods, interaction as Message, interactionMessage, failures)
+          verifyMessagePact(providerMethods, interaction as Message, interactionMessage, failures, index)
         } else {
           def expectedResponse = interaction.response
           boolean result = true
           providerMethods.each {
-            def actualResponse = invokeProviderMethod(it)
+            def actualResponse = invokeProviderMethod(it, index.instanceFor(it, providerMethodInstance))
             result &= verifyRequestResponsePact(expectedResponse, actualResponse, interactionMessage, failures)
           }
           result
@@ -308,7 +611,7 @@ class ProviderVerifier {
       }
     } catch (e) {
       failures[interactionMessage] = e
-      reporters.each { it.verificationFailed(interaction, e, callProjectHasProperty(PACT_SHOW_STACKTRACE)) }
+      currentReporters().each { it.verificationFailed(interaction, e, callProjectHasProperty(PACT_SHOW_STACKTRACE)) }
       false
     }
   }
@@ -329,11 +632,18 @@ class ProviderVerifier {
     }
   }
 
-  boolean verifyMessagePact(Set methods, Message message, String interactionMessage, Map failures) {
+  /**
+   * Verifies the message with the provider methods. When the methods are from an index, the instances the methods are
+   * invoked on are reused from the index.
+   */
+  @SuppressWarnings('ParameterCount')
+  boolean verifyMessagePact(Set methods, Message message, String interactionMessage, Map failures,
+                            ProviderMethodIndex index = null) {
     boolean result = true
     methods.each {
-      reporters.each { it.generatesAMessageWhich() }
-      def actualMessage = OptionalBody.body(invokeProviderMethod(it, providerMethodInstance(it)) as String)
+      currentReporters().each { it.generatesAMessageWhich() }
+      def instance = index ? index.instanceFor(it, providerMethodInstance) : providerMethodInstance(it)
+      def actualMessage = OptionalBody.body(invokeProviderMethod(it, instance) as String)
       def comparison = ResponseComparison.compareMessage(message, actualMessage)
       def s = ' generates a message which'
       result &= displayBodyResult(failures, comparison, interactionMessage + s)
@@ -357,4 +667,10 @@ class ProviderVerifier {
   void finialiseReports() {
     reporters.each { it.finaliseReport() }
   }
+
+  protected static class InteractionVerification {
+    final BufferedReporter events = new BufferedReporter()
+    final Map failures = [:]
+    Future<Boolean> result
+  }
 }
@@ -46,14 +46,12 @@ class ResponseComparison {
   }
 
   static compareMessage(Message message, OptionalBody actual) {
-    def result = JavaConverters$.MODULE$.mutableMapAsJavaMapConverter(MatchingConfig.bodyMatchers()).asJava().find {
-          message.contentType ==~ it.key
-    }
+    def result = MatchingConfig.lookupBodyMatcher(message.contentType)
     def mismatches = []
     def expected = message.asPactRequest()
     def actualMessage = new Response(200, ['Content-Type': message.contentType], actual)
-    if (result) {
-      mismatches = JavaConverters$.MODULE$.seqAsJavaListConverter(result.value.matchBody(expected,
+    if (result.isDefined()) {
+      mismatches = JavaConverters$.MODULE$.seqAsJavaListConverter(result.get()._2().matchBody(expected,
             actualMessage, true)).asJava()
     } else {
       def expectedBody = message.contents.orElse('')
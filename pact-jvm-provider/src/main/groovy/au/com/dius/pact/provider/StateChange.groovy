@@ -5,6 +5,7 @@ import au.com.dius.pact.model.ProviderState
 import groovy.transform.Canonical
 import groovy.util.logging.Slf4j
 import org.apache.commons.lang3.StringUtils
+import org.apache.http.util.EntityUtils
 
 /**
  * Class containing all the state change logic
@@ -97,7 +98,7 @@ class StateChange {
     try {
       def url = stateChangeHandler instanceof URI ? stateChangeHandler
         : new URI(stateChangeHandler.toString())
-      ProviderClient client = new ProviderClient(provider: provider)
+      ProviderClient client = new ProviderClient(provider: provider, httpClientFactory: verifier.httpClientFactory)
       def response = client.makeStateChangeRequest(url, state, useBody, isSetup, provider.stateChangeTeardown)
       log.debug "Invoked state change $url -> ${response?.statusLine}"
       if (response) {
@@ -109,6 +110,8 @@ class StateChange {
             return 'State Change Request Failed - ' + response.statusLine.toString()
           }
         } finally {
+          // the entity is consumed so the connection is returned to the pool to be reused
+          EntityUtils.consume(response.entity)
           response.close()
         }
       }
@@ -0,0 +1,25 @@
+package au.com.dius.pact.provider.reporters
+
+import org.codehaus.groovy.runtime.InvokerHelper
+
+/**
+ * Reporter that records the events reported while an interaction is verified, so they can be passed on to other
+ * reporters later
+ */
+class BufferedReporter {
+  private final List<Tuple2<String, Object>> events = []
+
+  def methodMissing(String name, def args) {
+    events << new Tuple2(name, args)
+    null
+  }
+
+  /**
+   * Passes the recorded events on to the reporters, in the order they were reported
+   */
+  void replay(List reporters) {
+    events.each { event ->
+      reporters.each { InvokerHelper.invokeMethod(it, event.first, event.second) }
+    }
+  }
+}
@@ -0,0 +1,125 @@
+package au.com.dius.pact.provider
+
+import java.util.concurrent.ThreadFactory
+import java.util.concurrent.atomic.AtomicInteger
+import java.util.function.Consumer
+import java.util.function.Function
+import java.util.function.Supplier
+
+/**
+ * Keeps interactions that need different provider states from being verified at the same time. Any number of
+ * interactions that need the same provider states can hold the gate together. The first of them to hold the gate sets
+ * up the provider states, and the last of them to leave it tears them down, so the states are not changed while an
+ * interaction that needs them is being verified. Interactions without provider states hold the gate for the empty
+ * list of states, so they are not verified while the provider is in a provider state.
+ */
+class ProviderStateGate {
+  private val lock = Object()
+  private var states: List<*>? = null
+  private var holders = 0
+  private var setupDone = false
+  private var setupResult: Any? = null
+  private var setupError: Throwable? = null
+  private var tearingDown = false
+
+  /**
+   * Verifies an interaction that needs the provider states. Waits until the gate is free or held for the same provider
+   * states. The interactions that did not run the setup get the result of the setup. The teardown is run with the
+   * result of the setup by the last interaction to leave the gate, unless the setup threw an exception.
+   */
+  fun <S, R> verify(states: List<*>, setup: Supplier<S>, verification: Function<S, R>, teardown: Consumer<S>): R {
+    val first = acquire(states)
+    try {
+      val setupResult = if (first) runSetup(setup) else awaitSetup<S>()
+      return verification.apply(setupResult)
+    } finally {
+      release(teardown)
+    }
+  }
+
+  private fun acquire(states: List<*>): Boolean {
+    synchronized(lock) {
+      while (tearingDown || (holders > 0 && this.states != states)) {
+        lock.wait()
+      }
+      holders++
+      if (holders == 1) {
+        this.states = states
+        setupDone = false
+        setupResult = null
+        setupError = null
+        return true
+      }
+      return false
+    }
+  }
+
+  private fun <S> runSetup(setup: Supplier<S>): S {
+    try {
+      val result = setup.get()
+      synchronized(lock) {
+        setupResult = result
+        setupDone = true
+        lock.notifyAll()
+      }
+      return result
+    } catch (e: Throwable) {
+      synchronized(lock) {
+        setupError = e
+        setupDone = true
+        lock.notifyAll()
+      }
+      throw e
+    }
+  }
+
+  @Suppress("UNCHECKED_CAST")
+  private fun <S> awaitSetup(): S {
+    synchronized(lock) {
+      while (!setupDone) {
+        lock.wait()
+      }
+      val error = setupError
+      if (error != null) {
+        throw IllegalStateException("Failed to set up the provider states $states", error)
+      }
+      return setupResult as S
+    }
+  }
+
+  @Suppress("UNCHECKED_CAST")
+  private fun <S> release(teardown: Consumer<S>) {
+    val (runTeardown, result) = synchronized(lock) {
+      holders--
+      if (holders > 0) {
+        return
+      }
+      tearingDown = true
+      Pair(setupDone && setupError == null, setupResult)
+    }
+    try {
+      if (runTeardown) {
+        teardown.accept(result as S)
+      }
+    } finally {
+      synchronized(lock) {
+        tearingDown = false
+        states = null
+        lock.notifyAll()
+      }
+    }
+  }
+}
+
+/**
+ * Creates the daemon threads that verify interactions concurrently
+ */
+class VerifierThreadFactory : ThreadFactory {
+  private val count = AtomicInteger()
+
+  override fun newThread(runnable: Runnable): Thread {
+    val thread = Thread(runnable, "pact-verifier-${count.incrementAndGet()}")
+    thread.isDaemon = true
+    return thread
+  }
+}
@@ -0,0 +1,64 @@
+package au.com.dius.pact.provider
+
+import org.apache.http.impl.client.CloseableHttpClient
+import spock.lang.Specification
+
+class HttpClientFactorySpec extends Specification {
+
+  private HttpClientFactory factory
+
+  def setup() {
+    factory = new HttpClientFactory()
+  }
+
+  def cleanup() {
+    factory.close()
+  }
+
+  def 'reuses the client for the provider'() {
+    given:
+    def provider = new ProviderInfo('provider')
+
+    expect:
+    factory.newClient(provider).is(factory.newClient(provider))
+  }
+
+  def 'creates a client for each provider configuration'() {
+    given:
+    def provider = new ProviderInfo('provider')
+    def otherProvider = new ProviderInfo(name: 'other', port: 8081)
+
+    expect:
+    !factory.newClient(provider).is(factory.newClient(otherProvider))
+  }
+
+  def 'creates a new client after the client for the provider is closed'() {
+    given:
+    def provider = new ProviderInfo('provider')
+    def client = factory.newClient(provider)
+
+    when:
+    factory.close(provider)
+
+    then:
+    !factory.newClient(provider).is(client)
+  }
+
+  def 'only calls the create client closure once for the provider'() {
+    given:
+    def client = Mock(CloseableHttpClient)
+    def calls = 0
+    def provider = new ProviderInfo(name: 'provider', createClient: { calls++; client })
+
+    when:
+    def first = factory.newClient(provider)
+    def second = factory.newClient(provider)
+    factory.close()
+
+    then:
+    first.is(client)
+    second.is(client)
+    calls == 1
+    1 * client.close()
+  }
+}
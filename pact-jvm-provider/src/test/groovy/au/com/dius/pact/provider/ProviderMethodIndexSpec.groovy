@@ -0,0 +1,67 @@
+package au.com.dius.pact.provider
+
+import spock.lang.Specification
+
+class ProviderMethodIndexSpec extends Specification {
+
+  static class MessageProvider {
+    @PactVerifyProvider('a message')
+    String aMessage() {
+      '{"a": 1}'
+    }
+
+    @PactVerifyProvider('a message')
+    String theSameMessage() {
+      '{"a": 1}'
+    }
+
+    @PactVerifyProvider('another message')
+    String anotherMessage() {
+      '{"b": 2}'
+    }
+
+    String notAProviderMethod() {
+      ''
+    }
+  }
+
+  def 'indexes the methods by the description in the annotation'() {
+    given:
+    def index = new ProviderMethodIndex(MessageProvider.declaredMethods.toList())
+
+    expect:
+    index.methodsFor('a message')*.name.sort() == ['aMessage', 'theSameMessage']
+    index.methodsFor('another message')*.name == ['anotherMessage']
+    index.methodsFor('an unknown message').empty
+  }
+
+  def 'creates the instance for the methods of a class once'() {
+    given:
+    def index = new ProviderMethodIndex(MessageProvider.declaredMethods.toList())
+    def created = 0
+    def create = { m -> created++; m.declaringClass.newInstance() }
+
+    when:
+    def instances = [MessageProvider.getMethod('aMessage'), MessageProvider.getMethod('anotherMessage')].collect {
+      index.instanceFor(it, create)
+    }
+
+    then:
+    created == 1
+    instances[0].is(instances[1])
+  }
+
+  def 'scans the classpath once for each classpath and packages to scan'() {
+    given:
+    def cache = new ProviderMethodIndex.Cache()
+    def urls = [ProviderMethodIndexSpec.protectionDomain.codeSource.location] as URL[]
+
+    when:
+    def index = cache.index(urls, ['au.com.dius.pact.provider'])
+
+    then:
+    index.methodsFor('another message')*.name == ['anotherMessage']
+    cache.index(urls, ['au.com.dius.pact.provider']).is(index)
+    !cache.index(urls, []).is(index)
+  }
+}
@@ -0,0 +1,94 @@
+package au.com.dius.pact.provider
+
+import au.com.dius.pact.model.ProviderState
+import au.com.dius.pact.model.Request
+import au.com.dius.pact.model.RequestResponseInteraction
+import au.com.dius.pact.model.Response
+import au.com.dius.pact.provider.ProviderStateScheduler.ScheduledInteraction
+import spock.lang.Specification
+
+class ProviderStateSchedulerSpec extends Specification {
+
+  private ProviderInfo provider
+  private ConsumerInfo consumer1
+  private ConsumerInfo consumer2
+
+  def setup() {
+    provider = new ProviderInfo(name: 'provider', stateChangeUrl: new URL('http://localhost:8080/state'))
+    consumer1 = new ConsumerInfo(name: 'consumer 1')
+    consumer2 = new ConsumerInfo(name: 'consumer 2')
+  }
+
+  def 'groups the interactions of all the consumers by their provider states'() {
+    given:
+    def interactions = [
+      scheduled(consumer1, 'a', ['state 1']),
+      scheduled(consumer1, 'b', ['state 2']),
+      scheduled(consumer2, 'c', ['state 1']),
+      scheduled(consumer2, 'd', []),
+      scheduled(consumer2, 'e', ['state 2', 'state 1']),
+      scheduled(consumer1, 'f', [])
+    ]
+
+    when:
+    def groups = ProviderStateScheduler.schedule(provider, interactions)
+
+    then:
+    groups.collect { it*.interaction*.description } == [['a', 'c'], ['b'], ['d', 'f'], ['e']]
+  }
+
+  def 'does not group interactions with the same provider state names but different parameters'() {
+    given:
+    def interactions = [
+      scheduled(consumer1, 'a', [new ProviderState('state', [id: 1])]),
+      scheduled(consumer1, 'b', [new ProviderState('state', [id: 2])]),
+      scheduled(consumer2, 'c', [new ProviderState('state', [id: 1])])
+    ]
+
+    when:
+    def groups = ProviderStateScheduler.schedule(provider, interactions)
+
+    then:
+    groups.collect { it*.interaction*.description } == [['a', 'c'], ['b']]
+  }
+
+  def 'does not group interactions of consumers with different state change handlers'() {
+    given:
+    consumer2.stateChange = 'http://localhost:8080/other-state'
+    def interactions = [
+      scheduled(consumer1, 'a', ['state 1']),
+      scheduled(consumer2, 'b', ['state 1']),
+      scheduled(consumer1, 'c', ['state 1'])
+    ]
+
+    when:
+    def groups = ProviderStateScheduler.schedule(provider, interactions)
+
+    then:
+    groups.collect { it*.interaction*.description } == [['a', 'c'], ['b']]
+  }
+
+  def 'puts interactions that need a non-reusable provider state in groups of their own'() {
+    given:
+    provider.nonReusableProviderStates = ['empty database']
+    def interactions = [
+      scheduled(consumer1, 'a', ['empty database']),
+      scheduled(consumer1, 'b', ['state 1']),
+      scheduled(consumer2, 'c', ['empty database']),
+      scheduled(consumer2, 'd', ['state 1', 'empty database'])
+    ]
+
+    when:
+    def groups = ProviderStateScheduler.schedule(provider, interactions)
+
+    then:
+    groups.collect { it*.interaction*.description } == [['a'], ['b'], ['c'], ['d']]
+  }
+
+  private static ScheduledInteraction scheduled(ConsumerInfo consumer, String description, List states) {
+    def providerStates = states.collect { it instanceof ProviderState ? it : new ProviderState(it) }
+    new ScheduledInteraction(consumer: consumer,
+      interaction: new RequestResponseInteraction(description, providerStates, new Request(), new Response()),
+      interactionMessage: description)
+  }
+}
@@ -1,11 +1,17 @@
 package au.com.dius.pact.provider
 
 import au.com.dius.pact.model.BrokerUrlSource
+import au.com.dius.pact.model.Consumer
 import au.com.dius.pact.model.Interaction
 import au.com.dius.pact.model.OptionalBody
 import au.com.dius.pact.model.Pact
 import au.com.dius.pact.model.PactReader
+import au.com.dius.pact.model.Provider
 import au.com.dius.pact.model.ProviderState
+import au.com.dius.pact.model.Request
+import au.com.dius.pact.model.RequestResponseInteraction
+import au.com.dius.pact.model.RequestResponsePact
+import au.com.dius.pact.model.Response
 import au.com.dius.pact.model.UnknownPactSource
 import au.com.dius.pact.model.UrlSource
 import au.com.dius.pact.model.v3.messaging.Message
@@ -15,6 +21,12 @@ import au.com.dius.pact.provider.broker.com.github.kittinunf.result.Result
 import spock.lang.Specification
 import spock.lang.Unroll
 
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicBoolean
+
 class ProviderVerifierSpec extends Specification {
 
   ProviderVerifier verifier
@@ -454,4 +466,335 @@ class ProviderVerifierSpec extends Specification {
     then:
     0 * client.publishVerificationResults(_, true, '0', null)
   }
+
+  def 'includes the interaction description and provider states in the failure message once'() {
+    given:
+    ProviderInfo provider = new ProviderInfo('Test Provider')
+    ConsumerInfo consumer = new ConsumerInfo(name: 'Test Consumer', stateChange: { state -> true })
+    def interaction = new RequestResponseInteraction('interaction 1',
+      [new ProviderState('state 1'), new ProviderState('state 2')], new Request(), new Response())
+    verifier.reporters = []
+    verifier.verifyResponseFromProvider(provider, interaction, _, _) >> { args ->
+      args[3][args[2]] = 'failed'
+      false
+    }
+    def failures = [:]
+
+    when:
+    def result = verifier.verifyInteraction(provider, consumer, failures, interaction)
+
+    then:
+    !result
+    failures.keySet()*.toString() == [
+      'Verifying a pact between Test Consumer and Test Provider - interaction 1 Given state 1 And state 2'
+    ]
+  }
+
+  def 'verifies the interactions concurrently and reports them in order when the workers property is set'() {
+    given:
+    ProviderInfo provider = new ProviderInfo('Test Provider')
+    ConsumerInfo consumer = new ConsumerInfo(name: 'Test Consumer')
+    def interactions = (1..3).collect {
+      new RequestResponseInteraction("interaction $it", [], new Request(), new Response())
+    }
+    def reporter = Mock(VerifierReporter)
+    verifier.reporters = [reporter]
+    verifier.projectHasProperty = { it == ProviderVerifier.PACT_VERIFIER_WORKERS }
+    verifier.projectGetProperty = { '3' }
+    verifier.verifyResponseFromProvider(provider, _, _, _) >> { args ->
+      if (args[1].description == 'interaction 1') {
+        sleep(200)
+      }
+      args[3][args[2]] = 'failed'
+      args[1].description != 'interaction 2'
+    }
+    def failures = [:]
+
+    when:
+    def result = verifier.verifyInteractions(provider, consumer, interactions, failures)
+
+    then:
+    1 * reporter.interactionDescription(interactions[0])
+
+    then:
+    1 * reporter.interactionDescription(interactions[1])
+
+    then:
+    1 * reporter.interactionDescription(interactions[2])
+    !result
+    failures.keySet()*.toString() == interactions.collect {
+      "Verifying a pact between Test Consumer and Test Provider - ${it.description}"
+    }
+  }
+
+  def 'does not verify interactions that need different provider states at the same time'() {
+    given:
+    ProviderInfo provider = new ProviderInfo('Test Provider')
+    ConsumerInfo consumer = new ConsumerInfo(name: 'Test Consumer')
+    def interactions = (1..8).collect {
+      new RequestResponseInteraction("interaction $it", [new ProviderState("state ${it % 2}")], new Request(),
+        new Response())
+    }
+    verifier.reporters = []
+    verifier.projectHasProperty = { it == ProviderVerifier.PACT_VERIFIER_WORKERS }
+    verifier.projectGetProperty = { '4' }
+    def active = ConcurrentHashMap.newKeySet()
+    def overlapped = false
+    verifier.verifyResponseFromProvider(provider, _, _, _) >> { args ->
+      def state = args[1].providerStates.first().name
+      active << args[1].description
+      if (interactions.findAll { it.description in active }*.providerStates.flatten()*.name.unique().size() > 1) {
+        overlapped = true
+      }
+      sleep(20)
+      active.remove(args[1].description)
+      state != null
+    }
+
+    when:
+    def result = verifier.verifyInteractions(provider, consumer, interactions, [:])
+
+    then:
+    result
+    !overlapped
+  }
+
+  def 'sets up the provider states once for interactions that are verified in the same states at the same time'() {
+    given:
+    def stateChanges = Collections.synchronizedList([])
+    ProviderInfo provider = new ProviderInfo(name: 'Test Provider', stateChangeTeardown: true)
+    ConsumerInfo consumer = new ConsumerInfo(name: 'Test Consumer', stateChange: { state, action ->
+      stateChanges << [state.name, action]
+      true
+    })
+    def interactions = (1..4).collect {
+      new RequestResponseInteraction("interaction $it", [new ProviderState('state 1')], new Request(), new Response())
+    }
+    verifier.reporters = []
+    verifier.projectHasProperty = { it == ProviderVerifier.PACT_VERIFIER_WORKERS }
+    verifier.projectGetProperty = { '4' }
+    def verifying = new CountDownLatch(4)
+    verifier.verifyResponseFromProvider(provider, _, _, _) >> {
+      verifying.countDown()
+      verifying.await(5, TimeUnit.SECONDS)
+    }
+    def failures = [:]
+
+    when:
+    def result = verifier.verifyInteractions(provider, consumer, interactions, failures)
+
+    then:
+    result
+    failures.isEmpty()
+    stateChanges == [['state 1', 'setup'], ['state 1', 'teardown']]
+  }
+
+  def 'does not verify interactions without provider states while the provider is in a provider state'() {
+    given:
+    def inState = new AtomicBoolean()
+    ProviderInfo provider = new ProviderInfo(name: 'Test Provider', stateChangeTeardown: true)
+    ConsumerInfo consumer = new ConsumerInfo(name: 'Test Consumer', stateChange: { state, action ->
+      inState.set(action == 'setup')
+      true
+    })
+    def interactions = (1..8).collect {
+      def states = it % 2 ? [new ProviderState('state 1')] : []
+      new RequestResponseInteraction("interaction $it", states, new Request(), new Response())
+    }
+    verifier.reporters = []
+    verifier.projectHasProperty = { it == ProviderVerifier.PACT_VERIFIER_WORKERS }
+    verifier.projectGetProperty = { '4' }
+    def overlapped = false
+    verifier.verifyResponseFromProvider(provider, _, _, _) >> { args ->
+      if (args[1].providerStates.empty && inState.get()) {
+        overlapped = true
+      }
+      sleep(20)
+      true
+    }
+
+    when:
+    def result = verifier.verifyInteractions(provider, consumer, interactions, [:])
+
+    then:
+    result
+    !overlapped
+  }
+
+  def 'fails the interactions that share a provider state that could not be set up'() {
+    given:
+    ProviderInfo provider = new ProviderInfo(name: 'Test Provider')
+    ConsumerInfo consumer = new ConsumerInfo(name: 'Test Consumer', stateChange: { state ->
+      sleep(100)
+      false
+    })
+    def interactions = (1..2).collect {
+      new RequestResponseInteraction("interaction $it", [new ProviderState('state 1')], new Request(), new Response())
+    }
+    verifier.reporters = []
+    verifier.projectHasProperty = { it == ProviderVerifier.PACT_VERIFIER_WORKERS }
+    verifier.projectGetProperty = { '2' }
+    def failures = [:]
+
+    when:
+    def result = verifier.verifyInteractions(provider, consumer, interactions, failures)
+
+    then:
+    !result
+    0 * verifier.verifyResponseFromProvider(_, _, _, _)
+    failures.keySet()*.toString() == interactions.collect {
+      "Verifying a pact between Test Consumer and Test Provider - ${it.description}"
+    }
+  }
+
+  def 'sends the requests of interactions without provider states together when asyncRequests is set'() {
+    given:
+    ProviderInfo provider = new ProviderInfo('Test Provider')
+    ConsumerInfo consumer = new ConsumerInfo(name: 'Test Consumer')
+    def interactions = [
+      new RequestResponseInteraction('interaction 1', [], new Request(), new Response()),
+      new RequestResponseInteraction('interaction 2', [], new Request(), new Response()),
+      new RequestResponseInteraction('interaction 3', [new ProviderState('state')], new Request(), new Response()),
+      new RequestResponseInteraction('interaction 4', [], new Request(), new Response())
+    ]
+    def reporter = Mock(VerifierReporter)
+    verifier.reporters = [reporter]
+    verifier.projectHasProperty = { it == ProviderVerifier.PACT_VERIFIER_ASYNC }
+    def failures = [:]
+
+    when:
+    def result = verifier.verifyInteractions(provider, consumer, interactions, failures)
+
+    then:
+    1 * verifier.makeRequestAsync(provider, interactions[0]) >>
+      CompletableFuture.completedFuture([statusCode: 200, headers: [:]])
+    1 * verifier.makeRequestAsync(provider, interactions[1]) >> new CompletableFuture().with {
+      completeExceptionally(new IOException('connection refused'))
+      it
+    }
+
+    then:
+    1 * reporter.interactionDescription(interactions[0])
+
+    then:
+    1 * reporter.interactionDescription(interactions[1])
+    1 * reporter.requestFailed(provider, interactions[1], _, { it instanceof IOException }, _)
+
+    then:
+    1 * verifier.verifyResponseFromProvider(provider, interactions[2], _, _) >> true
+
+    then:
+    1 * verifier.makeRequestAsync(provider, interactions[3]) >>
+      CompletableFuture.completedFuture([statusCode: 200, headers: [:]])
+    !result
+    failures.keySet()*.toString() == ['Verifying a pact between Test Consumer and Test Provider - interaction 2']
+  }
+
+  def 'does not send more requests at a time than the provider has connections when asyncRequests is set'() {
+    given:
+    ProviderInfo provider = new ProviderInfo(name: 'Test Provider', maxConnections: 2)
+    ConsumerInfo consumer = new ConsumerInfo(name: 'Test Consumer')
+    def interactions = (1..4).collect {
+      new RequestResponseInteraction("interaction $it", [], new Request(), new Response())
+    }
+    def reporter = Mock(VerifierReporter)
+    verifier.reporters = [reporter]
+    verifier.projectHasProperty = { it == ProviderVerifier.PACT_VERIFIER_ASYNC }
+    def ok = CompletableFuture.completedFuture([statusCode: 200, headers: [:]])
+
+    when:
+    def result = verifier.verifyInteractions(provider, consumer, interactions, [:])
+
+    then:
+    1 * verifier.makeRequestAsync(provider, interactions[0]) >> ok
+    1 * verifier.makeRequestAsync(provider, interactions[1]) >> ok
+
+    then:
+    1 * reporter.interactionDescription(interactions[0])
+
+    then:
+    1 * verifier.makeRequestAsync(provider, interactions[2]) >> ok
+
+    then:
+    1 * reporter.interactionDescription(interactions[1])
+
+    then:
+    1 * verifier.makeRequestAsync(provider, interactions[3]) >> ok
+
+    then:
+    1 * reporter.interactionDescription(interactions[2])
+
+    then:
+    1 * reporter.interactionDescription(interactions[3])
+    result
+  }
+
+  def 'sets up each provider state once for the interactions of all consumers when reuseProviderStates is set'() {
+    given:
+    def stateChanges = []
+    def stateChange = { state, action -> stateChanges << [state.name, action]; true }
+    ProviderInfo provider = new ProviderInfo(name: 'Test Provider', reuseProviderStates: true,
+      stateChangeTeardown: true, nonReusableProviderStates: ['empty database'])
+    ConsumerInfo consumer1 = new ConsumerInfo(name: 'Consumer 1', stateChange: stateChange)
+    ConsumerInfo consumer2 = new ConsumerInfo(name: 'Consumer 2', stateChange: stateChange)
+    provider.consumers = [consumer1, consumer2]
+    def interaction = { String description, String state ->
+      new RequestResponseInteraction(description, [new ProviderState(state)], new Request(), new Response())
+    }
+    def interactions1 = [interaction('a', 'state 1'), interaction('b', 'empty database'), interaction('c', 'state 2')]
+    def interactions2 = [interaction('d', 'state 2'), interaction('e', 'state 1'), interaction('f', 'empty database')]
+    verifier.loadPactFileForConsumer(consumer1) >>
+      new RequestResponsePact(new Provider('Test Provider'), new Consumer('Consumer 1'), interactions1)
+    verifier.loadPactFileForConsumer(consumer2) >>
+      new RequestResponsePact(new Provider('Test Provider'), new Consumer('Consumer 2'), interactions2)
+    verifier.verifyResponseFromProvider(provider, _, _, _) >> { args ->
+      if (args[1].description == 'c') {
+        args[3][args[2]] = 'failed'
+      }
+      args[1].description != 'c'
+    }
+    GroovyMock(ProviderVerifierKt, global: true)
+    def reporter = Mock(VerifierReporter)
+    verifier.reporters = [reporter]
+
+    when:
+    def failures = verifier.verifyProvider(provider)
+
+    then:
+    stateChanges == [
+      ['state 1', 'setup'], ['state 1', 'teardown'],
+      ['empty database', 'setup'], ['empty database', 'teardown'],
+      ['state 2', 'setup'], ['state 2', 'teardown'],
+      ['empty database', 'setup'], ['empty database', 'teardown']
+    ]
+    failures.keySet()*.toString() == ['Verifying a pact between Consumer 1 and Test Provider - c Given state 2']
+
+    then:
+    1 * reporter.reportVerificationForConsumer(consumer1, provider)
+
+    then:
+    1 * reporter.interactionDescription(interactions1[0])
+
+    then:
+    1 * reporter.interactionDescription(interactions1[1])
+
+    then:
+    1 * reporter.interactionDescription(interactions1[2])
+
+    then:
+    1 * reporter.reportVerificationForConsumer(consumer2, provider)
+
+    then:
+    1 * reporter.interactionDescription(interactions2[0])
+
+    then:
+    1 * reporter.interactionDescription(interactions2[1])
+
+    then:
+    1 * reporter.interactionDescription(interactions2[2])
+
+    then:
+    1 * ProviderVerifierKt.reportVerificationResults({ it.consumer.name == 'Consumer 1' }, false, _)
+    1 * ProviderVerifierKt.reportVerificationResults({ it.consumer.name == 'Consumer 2' }, true, _)
+  }
 }
@@ -10,13 +10,18 @@ import au.com.dius.pact.provider.ProviderClient
 import groovy.json.JsonBuilder
 import org.apache.http.HttpEntityEnclosingRequest
 import org.apache.http.HttpRequest
+import org.apache.http.HttpVersion
 import org.apache.http.client.entity.UrlEncodedFormEntity
 import org.apache.http.entity.ContentType
 import org.apache.http.entity.StringEntity
 import org.apache.http.impl.client.CloseableHttpClient
+import org.apache.http.impl.nio.client.CloseableHttpAsyncClient
+import org.apache.http.message.BasicHttpResponse
 import spock.lang.Specification
 import spock.lang.Unroll
 
+import java.util.concurrent.ExecutionException
+
 @SuppressWarnings(['ClosureAsLastMethodParameter', 'MethodCount'])
 class ProviderClientSpec extends Specification {
 
@@ -496,4 +501,42 @@ class ProviderClientSpec extends Specification {
     request.URI.toString() == 'http://localhost:8080/tenants/tester%2Ftoken/jobs/external-id'
   }
 
+  def 'makeRequestAsync applies the request filter and completes with the response map'() {
+    given:
+    def asyncClient = Mock(CloseableHttpAsyncClient)
+    client.request = new Request('GET', '/async')
+    client.provider.requestFilter = { request -> request.addHeader('X-Filtered', 'true') }
+    def response = new BasicHttpResponse(HttpVersion.HTTP_1_1, 200, 'OK')
+    response.addHeader('X-Test', 'test')
+    response.entity = new StringEntity('{"a": 1}', ContentType.APPLICATION_JSON)
+
+    when:
+    def result = client.makeRequestAsync()
+
+    then:
+    1 * httpClientFactory.newAsyncClient(provider) >> asyncClient
+    1 * asyncClient.execute({ it.URI.path == '/async' && it.getFirstHeader('X-Filtered').value == 'true' }, _) >>
+      { args -> args[1].completed(response); null }
+    result.get().statusCode == 200
+    result.get().headers == ['X-Test': 'test']
+    result.get().contentType.mimeType == 'application/json'
+    result.get().data == '{"a": 1}'
+  }
+
+  def 'makeRequestAsync completes exceptionally if the request fails'() {
+    given:
+    def asyncClient = Mock(CloseableHttpAsyncClient)
+    client.request = new Request('GET', '/async')
+    def exception = new IOException('connection refused')
+
+    when:
+    def result = client.makeRequestAsync()
+    result.get()
+
+    then:
+    1 * httpClientFactory.newAsyncClient(provider) >> asyncClient
+    1 * asyncClient.execute(_, _) >> { args -> args[1].failed(exception); null }
+    def e = thrown(ExecutionException)
+    e.cause.is(exception)
+  }
 }
@@ -12,6 +12,7 @@ class RequestSpecificationV1_1Spec extends BaseRequestSpec {
   def '#type/#name #test #matchDesc'() {
     expect:
     RequestMatching.requestMismatches(expected, actual).isEmpty() == match
+    RequestMatching.requestMatches(expected, actual) == match
 
     where:
     [type, name, test, match, matchDesc, expected, actual] << loadTestCases('/v1.1/request/', PactSpecVersion.V1_1)
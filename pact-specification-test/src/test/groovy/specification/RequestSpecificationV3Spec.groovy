@@ -10,6 +10,7 @@ class RequestSpecificationV3Spec extends BaseRequestSpec {
   def '#type/#name - #test #matchDesc'() {
     expect:
     RequestMatching.requestMismatches(expected, actual).isEmpty() == match
+    RequestMatching.requestMatches(expected, actual) == match
 
     where:
     [type, name, test, match, matchDesc, expected, actual] << loadTestCases('/v3/request/', PactSpecVersion.V3)
@@ -0,0 +1,45 @@
+package specification
+
+import au.com.dius.pact.matchers.JsonBodyMatcher
+import au.com.dius.pact.matchers.StreamingJsonBodyMatcher
+import au.com.dius.pact.model.PactSpecVersion
+import scala.collection.JavaConversions
+import spock.lang.Shared
+import spock.lang.Unroll
+
+class StreamingJsonBodyMatcherSpec extends BaseRequestSpec {
+
+  @Shared
+  def streamingMatcher = new StreamingJsonBodyMatcher()
+  @Shared
+  def treeMatcher = new JsonBodyMatcher()
+
+  static List loadJsonBodyCases() {
+    def cases = []
+    [['/v1/request/', PactSpecVersion.V1], ['/v1.1/request/', PactSpecVersion.V1_1],
+     ['/v2/request/', PactSpecVersion.V2], ['/v3/request/', PactSpecVersion.V3]].each { dir, version ->
+      cases.addAll(loadTestCases(dir, version).findAll { it[0] == 'body' && it[6].jsonBody() }
+        .collect { [dir + it[1], it[2], false, it[5], it[6]] })
+    }
+    ['/v1/response/', '/v1.1/response/', '/v2/response/', '/v3/response/'].each { dir ->
+      cases.addAll(BaseResponseSpec.loadTestCases(dir).findAll { it[0] == 'body' && it[6].jsonBody() }
+        .collect { [dir + it[1], it[2], true, it[5], it[6]] })
+    }
+    cases
+  }
+
+  @Unroll
+  def '#name - #test - streaming matcher returns the same mismatches'() {
+    expect:
+    mismatches(streamingMatcher.matchBody(expected, actual, allowUnexpectedKeys)) ==
+      mismatches(treeMatcher.matchBody(expected, actual, allowUnexpectedKeys))
+
+    where:
+    [name, test, allowUnexpectedKeys, expected, actual] << loadJsonBodyCases()
+  }
+
+  private static Set mismatches(result) {
+    JavaConversions.seqAsJavaList(result).collect { [it.path(), it.mismatch()] } as Set
+  }
+
+}